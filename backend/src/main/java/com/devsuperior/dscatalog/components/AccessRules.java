@@ -0,0 +1,242 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.entities.Authorities;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.security.web.access.intercept.FilterInvocationSecurityMetadataSource;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * URL authorization rules compiled into a table, used by the FilterSecurityInterceptor in
+ * place of antMatchers and SpEL expressions. Each HTTP method gets its own list of the
+ * rules that apply to it, in declaration order, so a request scans a handful of exact or
+ * prefix paths and the first that matches decides. Required roles are the shared
+ * {@link Authorities} instances, and nothing on this path allocates.
+ * <p>
+ * Patterns are exact paths or prefixes ending in {@code /**}, which like Ant patterns
+ * also match the prefix itself. An exact path also matches with a trailing slash, since
+ * Spring MVC routes both to the same handler.
+ */
+public final class AccessRules implements FilterInvocationSecurityMetadataSource, AccessDecisionManager {
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    // One row per HttpMethod, plus a last one for methods HttpMethod does not know
+    private final Entry[][] entries;
+    private final Set<ConfigAttribute> rules;
+
+    private AccessRules(Entry[][] entries, Set<ConfigAttribute> rules) {
+        this.entries = entries;
+        this.rules = rules;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static Rule permitAll() {
+        return new Rule("permitAll", false, new GrantedAuthority[0]);
+    }
+
+    public static Rule authenticated() {
+        return new Rule("authenticated", true, new GrantedAuthority[0]);
+    }
+
+    public static Rule hasAnyRole(String... roles) {
+        GrantedAuthority[] authorities = new GrantedAuthority[roles.length];
+        for (int i = 0; i < roles.length; i++) {
+            authorities[i] = Authorities.of("ROLE_" + roles[i]);
+        }
+        return new Rule("hasAnyRole" + List.of(roles), true, authorities);
+    }
+
+    // Null marks a public invocation, which the interceptor lets through without a decision
+    @Override
+    public Collection<ConfigAttribute> getAttributes(Object object) {
+        HttpServletRequest request = ((FilterInvocation) object).getRequest();
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        Entry[] candidates = entries[method != null ? method.ordinal() : METHODS.length];
+        String path = path(request);
+        for (Entry entry : candidates) {
+            if (entry.matches(path)) {
+                return entry.rule.attributes;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void decide(Authentication authentication, Object object, Collection<ConfigAttribute> attributes) {
+        Rule rule = (Rule) ((List<ConfigAttribute>) attributes).get(0);
+        if (!rule.allows(authentication)) {
+            throw new AccessDeniedException("Access is denied");
+        }
+    }
+
+    @Override
+    public Collection<ConfigAttribute> getAllConfigAttributes() {
+        return rules;
+    }
+
+    @Override
+    public boolean supports(ConfigAttribute attribute) {
+        return attribute instanceof Rule;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return FilterInvocation.class.isAssignableFrom(clazz);
+    }
+
+    // The path Spring Security's own matchers use: servlet path plus path info
+    private static String path(HttpServletRequest request) {
+        String servletPath = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null) {
+            return servletPath;
+        }
+        return servletPath.isEmpty() ? pathInfo : servletPath + pathInfo;
+    }
+
+    public static final class Rule implements ConfigAttribute {
+        private final String description;
+        private final boolean requiresAuthentication;
+        private final GrantedAuthority[] anyOf;
+        private final List<ConfigAttribute> attributes;
+
+        private Rule(String description, boolean requiresAuthentication, GrantedAuthority[] anyOf) {
+            this.description = description;
+            this.requiresAuthentication = requiresAuthentication;
+            this.anyOf = anyOf;
+            this.attributes = requiresAuthentication ? List.of(this) : null;
+        }
+
+        private boolean allows(Authentication authentication) {
+            if (!requiresAuthentication) {
+                return true;
+            }
+            if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                    || !authentication.isAuthenticated()) {
+                return false;
+            }
+            if (anyOf.length == 0) {
+                return true;
+            }
+            Collection<? extends GrantedAuthority> granted = authentication.getAuthorities();
+            if (granted instanceof List) {
+                List<? extends GrantedAuthority> list = (List<? extends GrantedAuthority>) granted;
+                for (int i = 0; i < list.size(); i++) {
+                    if (isRequired(list.get(i))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (GrantedAuthority authority : granted) {
+                if (isRequired(authority)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isRequired(GrantedAuthority authority) {
+            for (GrantedAuthority required : anyOf) {
+                if (required == authority || required.getAuthority().equals(authority.getAuthority())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String getAttribute() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private static final class Entry {
+        private final String path;
+        private final boolean prefix;
+        private final Rule rule;
+
+        private Entry(String pattern, Rule rule) {
+            this.prefix = pattern.endsWith("/**");
+            this.path = prefix ? pattern.substring(0, pattern.length() - 3) : pattern;
+            this.rule = rule;
+            if (path.contains("*") || path.contains("{")) {
+                throw new IllegalArgumentException("Only exact paths and /** prefixes are supported: " + pattern);
+            }
+        }
+
+        private boolean matches(String requestPath) {
+            if (!prefix) {
+                return requestPath.startsWith(path)
+                        && (requestPath.length() == path.length()
+                        || requestPath.length() == path.length() + 1 && requestPath.charAt(path.length()) == '/');
+            }
+            return requestPath.startsWith(path)
+                    && (requestPath.length() == path.length() || requestPath.charAt(path.length()) == '/');
+        }
+    }
+
+    public static final class Builder {
+        private final List<List<Entry>> rows = new ArrayList<>();
+        private final Set<ConfigAttribute> rules = new LinkedHashSet<>();
+
+        private Builder() {
+            for (int i = 0; i <= METHODS.length; i++) {
+                rows.add(new ArrayList<>());
+            }
+        }
+
+        public Builder add(String[] patterns, Rule rule) {
+            for (int i = 0; i < rows.size(); i++) {
+                add(i, patterns, rule);
+            }
+            return this;
+        }
+
+        public Builder add(HttpMethod method, String[] patterns, Rule rule) {
+            add(method.ordinal(), patterns, rule);
+            return this;
+        }
+
+        /**
+         * Adds the rule for every request no earlier rule matched, and builds the table.
+         */
+        public AccessRules anyRequest(Rule rule) {
+            add(new String[] { "/**" }, rule);
+            Entry[][] entries = new Entry[rows.size()][];
+            for (int i = 0; i < rows.size(); i++) {
+                entries[i] = rows.get(i).toArray(new Entry[0]);
+            }
+            return new AccessRules(entries, rules);
+        }
+
+        private void add(int row, String[] patterns, Rule rule) {
+            for (String pattern : patterns) {
+                rows.get(row).add(new Entry(pattern, rule));
+            }
+            if (rule.attributes != null) {
+                rules.add(rule);
+            }
+        }
+    }
+}
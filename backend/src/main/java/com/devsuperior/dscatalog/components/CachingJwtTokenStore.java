@@ -0,0 +1,160 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.services.TokenRevocationList;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.json.JsonParserFactory;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A JwtTokenStore that verifies and parses each distinct token once. The resource server
+ * reads every request's token twice (as an access token, then as an authentication); both
+ * come from one cache entry keyed by a SHA-256 digest of the token, so the raw bearer value
+ * is never kept. An entry expires when its token does, and the least used entries go first
+ * once {@code maxSize} is reached. Tokens that fail verification are not cached.
+ * <p>
+ * Every read, cached or not, is checked against the {@link TokenRevocationList}. Removing a
+ * refresh token, which the token services do when they rotate one, revokes it until it
+ * would have expired, since a JWT cannot be deleted.
+ */
+public class CachingJwtTokenStore extends JwtTokenStore {
+
+    private final Cache<String, Verified> cache;
+    private final TokenRevocationList revocations;
+
+    public CachingJwtTokenStore(JwtAccessTokenConverter converter, long maxSize, TokenRevocationList revocations) {
+        super(converter);
+        this.revocations = revocations;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public void registerMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt");
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        return verified(tokenValue).accessToken;
+    }
+
+    // OAuth2AuthenticationManager sets details and the authenticated flag on what it gets
+    // back, so every caller receives its own copy of the cached authentication
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        OAuth2Authentication cached = verified(token).authentication;
+        return new OAuth2Authentication(cached.getOAuth2Request(), cached.getUserAuthentication());
+    }
+
+    // A revoked refresh token reads as missing, which the token services report as invalid_grant
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        OAuth2RefreshToken refreshToken = super.readRefreshToken(tokenValue);
+        if (refreshToken instanceof ExpiringOAuth2RefreshToken) {
+            Instant expiresAt = ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration().toInstant();
+            if (revocations.isRevoked(tokenId(tokenValue), expiresAt)) {
+                return null;
+            }
+        }
+        return refreshToken;
+    }
+
+    // Refresh tokens are read once per refresh, so they bypass the access token cache
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        return super.readAuthentication(token.getValue());
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        if (token instanceof ExpiringOAuth2RefreshToken) {
+            revocations.revoke(tokenId(token.getValue()), ((ExpiringOAuth2RefreshToken) token).getExpiration().toInstant());
+        }
+    }
+
+    private Verified verified(String tokenValue) {
+        Verified verified = cache.get(digest(tokenValue), key -> {
+            OAuth2AccessToken accessToken = super.readAccessToken(tokenValue);
+            return new Verified(accessToken, super.readAuthentication(tokenValue));
+        });
+        OAuth2AccessToken accessToken = verified.accessToken;
+        if (accessToken.getExpiration() != null
+                && revocations.isRevoked(tokenId(accessToken), accessToken.getExpiration().toInstant())) {
+            throw new InvalidTokenException("Token was revoked");
+        }
+        return verified;
+    }
+
+    private static String tokenId(OAuth2AccessToken accessToken) {
+        Object jti = accessToken.getAdditionalInformation().get(JwtAccessTokenConverter.TOKEN_ID);
+        return jti != null ? jti.toString() : null;
+    }
+
+    // Only called on values the converter has already verified
+    private static String tokenId(String tokenValue) {
+        Map<String, Object> claims = JsonParserFactory.getJsonParser().parseMap(JwtHelper.decode(tokenValue).getClaims());
+        Object jti = claims.get(JwtAccessTokenConverter.TOKEN_ID);
+        return jti != null ? jti.toString() : null;
+    }
+
+    private static String digest(String tokenValue) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(tokenValue.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Verified {
+        private final OAuth2AccessToken accessToken;
+        private final OAuth2Authentication authentication;
+
+        private Verified(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+            this.accessToken = accessToken;
+            this.authentication = authentication;
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Verified> {
+        @Override
+        public long expireAfterCreate(String key, Verified value, long currentTime) {
+            if (value.accessToken.getExpiration() == null) {
+                return Long.MAX_VALUE;
+            }
+            long millis = value.accessToken.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Verified value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Verified value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.services.CategoryCache;
+import com.devsuperior.dscatalog.services.CategoryProductCounts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Adds a synthetic catalog on startup when catalog.generator.* asks for one: products
+ * with searchable names and descriptions, each linked to {@code fan-out} random categories,
+ * and users with roles who all log in with password 123456. Rows are written in JDBC
+ * batches, one transaction per batch, and the same seed always yields the same data.
+ */
+@Component
+public class CatalogGenerator implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    public static final String USER_PASSWORD = "123456";
+
+    private static final String[] ADJECTIVES = {"Smart", "Wireless", "Portable", "Gamer", "Ultra", "Compact",
+            "Premium", "Classic", "Digital", "Professional", "Silent", "Rugged"};
+    private static final String[] NOUNS = {"Phone", "Notebook", "Monitor", "Keyboard", "Mouse", "Headset",
+            "Camera", "Speaker", "Tablet", "Router", "Watch", "Chair", "Book", "Console", "Printer"};
+    private static final String[] WORDS = {"lorem", "ipsum", "dolor", "amet", "consectetur", "adipiscing",
+            "elit", "tempor", "incididunt", "labore", "magna", "aliqua", "veniam", "nostrud", "exercitation",
+            "ullamco", "laboris", "commodo", "consequat", "voluptate", "fugiat", "pariatur", "occaecat"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private CategoryProductCounts categoryCounts;
+
+    @Value("${catalog.generator.products}")
+    private int products;
+
+    @Value("${catalog.generator.categories}")
+    private int categories;
+
+    @Value("${catalog.generator.fan-out}")
+    private int fanOut;
+
+    @Value("${catalog.generator.users}")
+    private int users;
+
+    @Value("${catalog.generator.batch-size}")
+    private int batchSize;
+
+    @Value("${catalog.generator.seed}")
+    private long seed;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (products <= 0 && categories <= 0 && users <= 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        List<Long> categoryIds = generateCategories();
+        generateProducts(random, categoryIds);
+        generateUsers();
+        categoryCache.refreshAfterCommit();
+        categoryCounts.recountAfterCommit();
+        logger.info("Generated " + categories + " categories, " + products + " products and " + users + " users in " +
+                (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private List<Long> generateCategories() {
+        Timestamp now = Timestamp.from(Instant.now());
+        long offset = count("tb_category");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= categories; i++) {
+            rows.add(new Object[]{"Category " + (offset + i), now});
+            if (rows.size() == batchSize || i == categories) {
+                transactionTemplate.executeWithoutResult(status ->
+                        insert("INSERT INTO tb_category (name, created_at) VALUES (?, ?)", rows));
+                rows.clear();
+            }
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM tb_category ORDER BY id", Long.class);
+    }
+
+    private void generateProducts(Random random, List<Long> categoryIds) {
+        if (products > 0 && categoryIds.isEmpty()) {
+            throw new IllegalStateException("Products need at least one category");
+        }
+        int perProduct = Math.min(fanOut, categoryIds.size());
+        Instant firstDate = Instant.parse("2020-01-01T00:00:00Z");
+        Timestamp now = Timestamp.from(Instant.now());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= products; i++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 40; w++) {
+                description.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            rows.add(new Object[]{name, description.toString(), 10 + random.nextInt(500_000) / 100.0,
+                    "https://img.com/products/" + i + ".jpg",
+                    Timestamp.from(firstDate.plusSeconds(random.nextInt(100_000_000))), now});
+
+            if (rows.size() == batchSize || i == products) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Long> ids = insert("INSERT INTO tb_product (name, description, price, img_url, date, updated_at, version) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, 0)", rows);
+                    List<Object[]> links = new ArrayList<>();
+                    for (Long id : ids) {
+                        Set<Long> picked = new LinkedHashSet<>();
+                        while (picked.size() < perProduct) {
+                            picked.add(categoryIds.get(random.nextInt(categoryIds.size())));
+                        }
+                        picked.forEach(categoryId -> links.add(new Object[]{id, categoryId}));
+                    }
+                    jdbcTemplate.batchUpdate("INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)", links);
+                });
+                rows.clear();
+            }
+        }
+    }
+
+    private void generateUsers() {
+        if (users <= 0) {
+            return;
+        }
+        String password = passwordEncoder.encode(USER_PASSWORD);
+        Long operator = jdbcTemplate.queryForObject("SELECT id FROM tb_role WHERE authority = 'ROLE_OPERATOR'", Long.class);
+        Long admin = jdbcTemplate.queryForObject("SELECT id FROM tb_role WHERE authority = 'ROLE_ADMIN'", Long.class);
+        long offset = count("tb_user");
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            long n = offset + i;
+            rows.add(new Object[]{"User", String.valueOf(n), userEmail(n), password});
+            if (rows.size() == batchSize || i == users) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Long> ids = insert("INSERT INTO tb_user (first_name, last_name, email, password) VALUES (?, ?, ?, ?)", rows);
+                    List<Object[]> roles = new ArrayList<>();
+                    for (Long id : ids) {
+                        roles.add(new Object[]{id, operator});
+                        // One user in ten is also an admin
+                        if (id % 10 == 0) {
+                            roles.add(new Object[]{id, admin});
+                        }
+                    }
+                    jdbcTemplate.batchUpdate("INSERT INTO tb_user_role (user_id, role_id) VALUES (?, ?)", roles);
+                });
+                rows.clear();
+            }
+        }
+    }
+
+    public static String userEmail(long n) {
+        return "user" + n + "@catalog.test";
+    }
+
+    private long count(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private List<Long> insert(String sql, List<Object[]> rows) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        statement.setObject(i + 1, row[i]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> ids = new ArrayList<>(rows.size());
+                try (ResultSet generated = statement.getGeneratedKeys()) {
+                    while (generated.next()) {
+                        ids.add(generated.getLong("id"));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+}
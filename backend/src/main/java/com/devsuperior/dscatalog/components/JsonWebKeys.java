@@ -0,0 +1,195 @@
+package com.devsuperior.dscatalog.components;
+
+import org.springframework.security.jwt.crypto.sign.EllipticCurveVerifier;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.jwt.crypto.sign.Signer;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conversions between JCA keys, the signers and verifiers spring-security-jwt works with,
+ * and their JWK form (RFC 7517). RSA keys sign RS256; EC keys sign ES256, ES384 or ES512
+ * depending on their curve.
+ */
+final class JsonWebKeys {
+
+    private JsonWebKeys() {
+    }
+
+    static Signer signer(PrivateKey key) {
+        if (key instanceof RSAPrivateKey) {
+            return new RsaSigner((RSAPrivateKey) key);
+        }
+        if (key instanceof ECPrivateKey) {
+            return new EllipticCurveSigner((ECPrivateKey) key);
+        }
+        throw new IllegalArgumentException("Unsupported signing key: " + key.getAlgorithm());
+    }
+
+    static SignatureVerifier verifier(PublicKey key) {
+        if (key instanceof RSAPublicKey) {
+            return new RsaVerifier((RSAPublicKey) key);
+        }
+        if (key instanceof ECPublicKey) {
+            return new EllipticCurveVerifier((ECPublicKey) key, Curve.of((ECPublicKey) key).jcaAlgorithm);
+        }
+        throw new IllegalArgumentException("Unsupported verification key: " + key.getAlgorithm());
+    }
+
+    static String algorithm(PublicKey key) {
+        if (key instanceof RSAPublicKey) {
+            return "RS256";
+        }
+        if (key instanceof ECPublicKey) {
+            return Curve.of((ECPublicKey) key).jwsAlgorithm;
+        }
+        throw new IllegalArgumentException("Unsupported verification key: " + key.getAlgorithm());
+    }
+
+    static Map<String, Object> toJwk(String kid, PublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        if (key instanceof RSAPublicKey) {
+            RSAPublicKey rsa = (RSAPublicKey) key;
+            jwk.put("kty", "RSA");
+            jwk.put("kid", kid);
+            jwk.put("use", "sig");
+            jwk.put("alg", algorithm(key));
+            jwk.put("n", base64Url(rsa.getModulus(), 0));
+            jwk.put("e", base64Url(rsa.getPublicExponent(), 0));
+        } else if (key instanceof ECPublicKey) {
+            ECPublicKey ec = (ECPublicKey) key;
+            Curve curve = Curve.of(ec);
+            jwk.put("kty", "EC");
+            jwk.put("kid", kid);
+            jwk.put("use", "sig");
+            jwk.put("alg", curve.jwsAlgorithm);
+            jwk.put("crv", curve.name);
+            jwk.put("x", base64Url(ec.getW().getAffineX(), curve.fieldBytes));
+            jwk.put("y", base64Url(ec.getW().getAffineY(), curve.fieldBytes));
+        } else {
+            throw new IllegalArgumentException("Unsupported verification key: " + key.getAlgorithm());
+        }
+        return jwk;
+    }
+
+    static PublicKey fromJwk(Map<String, ?> jwk) throws GeneralSecurityException {
+        String kty = String.valueOf(jwk.get("kty"));
+        if ("RSA".equals(kty)) {
+            RSAPublicKeySpec spec = new RSAPublicKeySpec(integer(jwk.get("n")), integer(jwk.get("e")));
+            return KeyFactory.getInstance("RSA").generatePublic(spec);
+        }
+        if ("EC".equals(kty)) {
+            Curve curve = Curve.named(String.valueOf(jwk.get("crv")));
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec(curve.stdName));
+            ECPoint point = new ECPoint(integer(jwk.get("x")), integer(jwk.get("y")));
+            ECPublicKeySpec spec = new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class));
+            return KeyFactory.getInstance("EC").generatePublic(spec);
+        }
+        throw new GeneralSecurityException("Unsupported key type: " + kty);
+    }
+
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length < length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static BigInteger integer(Object base64Url) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(String.valueOf(base64Url)));
+    }
+
+    private enum Curve {
+        P256("P-256", "secp256r1", 32, "ES256", "SHA256withECDSA"),
+        P384("P-384", "secp384r1", 48, "ES384", "SHA384withECDSA"),
+        P521("P-521", "secp521r1", 66, "ES512", "SHA512withECDSA");
+
+        private final String name;
+        private final String stdName;
+        private final int fieldBytes;
+        private final String jwsAlgorithm;
+        private final String jcaAlgorithm;
+
+        Curve(String name, String stdName, int fieldBytes, String jwsAlgorithm, String jcaAlgorithm) {
+            this.name = name;
+            this.stdName = stdName;
+            this.fieldBytes = fieldBytes;
+            this.jwsAlgorithm = jwsAlgorithm;
+            this.jcaAlgorithm = jcaAlgorithm;
+        }
+
+        static Curve of(ECPublicKey key) {
+            return ofFieldSize(key.getParams().getCurve().getField().getFieldSize());
+        }
+
+        static Curve of(ECPrivateKey key) {
+            return ofFieldSize(key.getParams().getCurve().getField().getFieldSize());
+        }
+
+        static Curve named(String name) {
+            return Arrays.stream(values()).filter(curve -> curve.name.equals(name)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported curve: " + name));
+        }
+
+        private static Curve ofFieldSize(int bits) {
+            return Arrays.stream(values()).filter(curve -> (bits + 7) / 8 == curve.fieldBytes).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported curve size: " + bits));
+        }
+    }
+
+    // JWS wants the raw r || s pair rather than the DER sequence the plain JCA algorithm returns
+    private static final class EllipticCurveSigner implements Signer {
+        private final ECPrivateKey key;
+        private final Curve curve;
+
+        private EllipticCurveSigner(ECPrivateKey key) {
+            this.key = key;
+            this.curve = Curve.of(key);
+        }
+
+        @Override
+        public byte[] sign(byte[] bytes) {
+            try {
+                Signature signature = Signature.getInstance(curve.jcaAlgorithm + "inP1363Format");
+                signature.initSign(key);
+                signature.update(bytes);
+                return signature.sign();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String algorithm() {
+            return curve.jcaAlgorithm;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.devsuperior.dscatalog.components;
+
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.jwt.crypto.sign.Signer;
+import org.springframework.util.ResourceUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The key pairs this node signs tokens with, keyed by kid. The first key signs new tokens;
+ * the others only verify, so tokens issued before a rotation stay valid until they expire.
+ * Rotating means putting the new alias first and keeping the old one listed for at least
+ * one token lifetime.
+ */
+public class JwtKeyRing implements JwtVerificationKeys {
+    private static final JwtKeyRing EMPTY = new JwtKeyRing(new LinkedHashMap<>());
+
+    private final String activeKid;
+    private final Map<String, KeyPair> keyPairs;
+    private final Map<String, SignatureVerifier> verifiers;
+    private final Signer signer;
+
+    public JwtKeyRing(LinkedHashMap<String, KeyPair> keyPairs) {
+        this.keyPairs = Collections.unmodifiableMap(new LinkedHashMap<>(keyPairs));
+        this.activeKid = keyPairs.isEmpty() ? null : keyPairs.keySet().iterator().next();
+        this.verifiers = keyPairs.entrySet().stream().collect(Collectors.toUnmodifiableMap(
+                Map.Entry::getKey, entry -> JsonWebKeys.verifier(entry.getValue().getPublic())));
+        this.signer = activeKid == null ? null : JsonWebKeys.signer(keyPairs.get(activeKid).getPrivate());
+    }
+
+    public static JwtKeyRing empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Reads the listed aliases from a PKCS12 or JKS keystore, each alias becoming a kid.
+     */
+    public static JwtKeyRing load(String location, String password, List<String> aliases) {
+        try (InputStream in = ResourceUtils.getURL(location).openStream()) {
+            KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            keyStore.load(in, password.toCharArray());
+
+            LinkedHashMap<String, KeyPair> keyPairs = new LinkedHashMap<>();
+            for (String alias : aliases) {
+                PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, password.toCharArray());
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (privateKey == null || certificate == null) {
+                    throw new IllegalStateException("No key pair " + alias + " in " + location);
+                }
+                keyPairs.put(alias, new KeyPair(certificate.getPublicKey(), privateKey));
+            }
+            return new JwtKeyRing(keyPairs);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot read JWT keys from " + location, e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return activeKid == null;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public PublicKey getActivePublicKey() {
+        return keyPairs.get(activeKid).getPublic();
+    }
+
+    /**
+     * The JWS name of the active key's algorithm, such as RS256 or ES256.
+     */
+    public String getAlgorithm() {
+        return JsonWebKeys.algorithm(getActivePublicKey());
+    }
+
+    public Signer signer() {
+        return signer;
+    }
+
+    @Override
+    public SignatureVerifier verifier(String kid) {
+        return kid == null ? null : verifiers.get(kid);
+    }
+
+    /**
+     * Every public key on the ring in JWK form, the active one first.
+     */
+    public List<Map<String, Object>> jwks() {
+        return keyPairs.entrySet().stream()
+                .map(entry -> JsonWebKeys.toJwk(entry.getKey(), entry.getValue().getPublic()))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,9 @@
 package com.devsuperior.dscatalog.components;
 
 import com.devsuperior.dscatalog.entities.User;
-import com.devsuperior.dscatalog.repositories.UserRepository;
+import com.devsuperior.dscatalog.services.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
@@ -15,11 +16,18 @@ import java.util.Map;
 @Component
 public class JwtTokenEnhancer implements TokenEnhancer {
     @Autowired
-    private UserRepository userRepository;
+    private PrincipalCache principalCache;
 
     @Override
     public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
-        User user = userRepository.findByEmail(authentication.getName());
+        // The password grant hands over the User that loadUserByUsername already loaded
+        Object principal = authentication.getUserAuthentication() == null
+                ? null
+                : authentication.getUserAuthentication().getPrincipal();
+        User user = principal instanceof User
+                ? (User) principal
+                : principalCache.findByEmail(authentication.getName())
+                        .orElseThrow(() -> new UsernameNotFoundException("Email not found"));
 
         Map<String, Object> map = new HashMap<>();
         map.put("userFirstName", user.getFirstName());
@@ -0,0 +1,14 @@
+package com.devsuperior.dscatalog.components;
+
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+
+/**
+ * Public keys a token may be signed with, looked up by the kid in its header.
+ */
+public interface JwtVerificationKeys {
+
+    /**
+     * The verifier for the key, or null when no such key is known.
+     */
+    SignatureVerifier verifier(String kid);
+}
@@ -0,0 +1,111 @@
+package com.devsuperior.dscatalog.components;
+
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A JwtAccessTokenConverter for asymmetric keys. Tokens are signed with the ring's active
+ * key and carry its kid in the header; a token is verified with whichever public key its
+ * kid names, so a node holding only public keys (see {@link RemoteJwkSet}) validates as
+ * well as the one that issued the token. Without signing keys the converter only verifies.
+ */
+public class KeyIdJwtAccessTokenConverter extends JwtAccessTokenConverter {
+    private static final String EXP = "exp";
+
+    private final JsonParser objectMapper = JsonParserFactory.create();
+    private final JwtKeyRing signingKeys;
+    private final JwtVerificationKeys verificationKeys;
+
+    public KeyIdJwtAccessTokenConverter(JwtKeyRing signingKeys, JwtVerificationKeys verificationKeys) {
+        this.signingKeys = signingKeys;
+        this.verificationKeys = verificationKeys;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Keys come from the ring, not from the signing and verifier keys of the parent
+    }
+
+    @Override
+    protected String encode(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        if (signingKeys == null || signingKeys.isEmpty()) {
+            throw new IllegalStateException("This node has no key to sign tokens with");
+        }
+        String content;
+        try {
+            content = objectMapper.formatMap(getAccessTokenConverter().convertAccessToken(accessToken, authentication));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot convert access token to JSON", e);
+        }
+        // Assembled here because JwtHelper.encode only knows the HMAC and RSA algorithm names
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", signingKeys.getAlgorithm());
+        header.put("typ", "JWT");
+        header.put("kid", signingKeys.getActiveKid());
+        String signingInput = base64Url(objectMapper.formatMap(header).getBytes(StandardCharsets.UTF_8))
+                + "." + base64Url(content.getBytes(StandardCharsets.UTF_8));
+        byte[] signature = signingKeys.signer().sign(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + base64Url(signature);
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    @Override
+    protected Map<String, Object> decode(String token) {
+        SignatureVerifier verifier;
+        try {
+            verifier = verificationKeys.verifier(JwtHelper.headers(token).get("kid"));
+        } catch (Exception e) {
+            throw new InvalidTokenException("Cannot read token header", e);
+        }
+        if (verifier == null) {
+            throw new InvalidTokenException("Token is signed with an unknown key");
+        }
+        try {
+            Jwt jwt = JwtHelper.decodeAndVerify(token, verifier);
+            Map<String, Object> claims = objectMapper.parseMap(jwt.getClaims());
+            if (claims.get(EXP) instanceof Integer) {
+                claims.put(EXP, ((Integer) claims.get(EXP)).longValue());
+            }
+            getJwtClaimsSetVerifier().verify(claims);
+            return claims;
+        } catch (Exception e) {
+            throw new InvalidTokenException("Cannot convert access token to JSON", e);
+        }
+    }
+
+    /**
+     * The active public key for /oauth/token_key, base64 DER like a PEM body.
+     */
+    @Override
+    public Map<String, String> getKey() {
+        if (signingKeys == null || signingKeys.isEmpty()) {
+            return Map.of();
+        }
+        return Map.of(
+                "alg", signingKeys.getAlgorithm(),
+                "kid", signingKeys.getActiveKid(),
+                "value", "-----BEGIN PUBLIC KEY-----\n"
+                        + Base64.getMimeEncoder().encodeToString(signingKeys.getActivePublicKey().getEncoded())
+                        + "\n-----END PUBLIC KEY-----");
+    }
+
+    @Override
+    public boolean isPublic() {
+        return true;
+    }
+}
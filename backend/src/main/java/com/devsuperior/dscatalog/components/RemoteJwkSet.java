@@ -0,0 +1,90 @@
+package com.devsuperior.dscatalog.components;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Public keys fetched from the authorization server's JWKS endpoint, for nodes that only
+ * validate tokens. Keys are kept in memory and the set is fetched again only when a token
+ * names a kid not seen before, at most once per {@code minRefreshInterval}, so a rotation
+ * is picked up on first use and unknown kids cannot make every request call back.
+ */
+public class RemoteJwkSet implements JwtVerificationKeys {
+    private static final Logger logger = LoggerFactory.getLogger(RemoteJwkSet.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int TIMEOUT_MILLIS = 5_000;
+
+    private final String url;
+    private final long minRefreshNanos;
+    private volatile Map<String, SignatureVerifier> verifiers = Map.of();
+    private volatile long fetchedAt;
+    private volatile boolean fetched;
+
+    public RemoteJwkSet(String url, Duration minRefreshInterval) {
+        this.url = url;
+        this.minRefreshNanos = minRefreshInterval.toNanos();
+    }
+
+    @Override
+    public SignatureVerifier verifier(String kid) {
+        SignatureVerifier verifier = kid == null ? null : verifiers.get(kid);
+        if (verifier == null && kid != null && refreshDue()) {
+            refresh();
+            verifier = verifiers.get(kid);
+        }
+        return verifier;
+    }
+
+    private boolean refreshDue() {
+        return !fetched || System.nanoTime() - fetchedAt >= minRefreshNanos;
+    }
+
+    private synchronized void refresh() {
+        // Another thread may have fetched while this one waited for the lock
+        if (!refreshDue()) {
+            return;
+        }
+        fetched = true;
+        fetchedAt = System.nanoTime();
+        try {
+            URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            Map<String, SignatureVerifier> loaded = new HashMap<>();
+            try (InputStream in = connection.getInputStream()) {
+                Map<?, ?> jwkSet = objectMapper.readValue(in, Map.class);
+                for (Object key : (List<?>) jwkSet.get("keys")) {
+                    Map<String, ?> jwk = asJwk(key);
+                    if (jwk.get("kid") == null || "enc".equals(jwk.get("use"))) {
+                        continue;
+                    }
+                    try {
+                        loaded.put(String.valueOf(jwk.get("kid")), JsonWebKeys.verifier(JsonWebKeys.fromJwk(jwk)));
+                    } catch (GeneralSecurityException | IllegalArgumentException e) {
+                        logger.warn("Skipping JWK " + jwk.get("kid") + " from " + url + ": " + e.getMessage());
+                    }
+                }
+            }
+            verifiers = Map.copyOf(loaded);
+        } catch (Exception e) {
+            // Keep the keys already known; the next unknown kid retries after the interval
+            logger.warn("Cannot fetch JWK set from " + url + ": " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> asJwk(Object key) {
+        return (Map<String, ?>) key;
+    }
+}
@@ -0,0 +1,80 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.entities.Authorities;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.UserAuthenticationConverter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The slim token profile: {@code sub}, {@code cid} and {@code scp} instead of user_name,
+ * client_id and scope, and the authorities as one-letter role codes under {@code rol}.
+ * Authorities without a code are written out in full, so a new role works before it gets
+ * one. Issuing and validating nodes must use the same profile.
+ */
+public class SlimAccessTokenConverter extends DefaultAccessTokenConverter {
+    static final String SUBJECT = "sub";
+    static final String ROLES = "rol";
+
+    private static final Map<String, String> CODES = Map.of(
+            "ROLE_OPERATOR", "O",
+            "ROLE_ADMIN", "A");
+
+    // The shared authority per code, so decoding a token allocates none
+    private static final Map<String, GrantedAuthority> AUTHORITIES = Map.of(
+            "O", Authorities.OPERATOR,
+            "A", Authorities.ADMIN);
+
+    public SlimAccessTokenConverter() {
+        setUserTokenConverter(new SlimUserAuthenticationConverter());
+        setClientIdAttribute("cid");
+        setScopeAttribute("scp");
+    }
+
+    static List<String> encodeRoles(Collection<? extends GrantedAuthority> authorities) {
+        List<String> codes = new ArrayList<>(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            codes.add(CODES.getOrDefault(authority.getAuthority(), authority.getAuthority()));
+        }
+        return codes;
+    }
+
+    static List<GrantedAuthority> decodeRoles(Collection<?> codes) {
+        List<GrantedAuthority> authorities = new ArrayList<>(codes.size());
+        for (Object code : codes) {
+            GrantedAuthority authority = AUTHORITIES.get(String.valueOf(code));
+            authorities.add(authority != null ? authority : Authorities.of(String.valueOf(code)));
+        }
+        return authorities;
+    }
+
+    private static final class SlimUserAuthenticationConverter implements UserAuthenticationConverter {
+
+        @Override
+        public Map<String, ?> convertUserAuthentication(Authentication authentication) {
+            Map<String, Object> claims = new LinkedHashMap<>();
+            claims.put(SUBJECT, authentication.getName());
+            if (authentication.getAuthorities() != null && !authentication.getAuthorities().isEmpty()) {
+                claims.put(ROLES, encodeRoles(authentication.getAuthorities()));
+            }
+            return claims;
+        }
+
+        @Override
+        public Authentication extractAuthentication(Map<String, ?> map) {
+            if (!map.containsKey(SUBJECT)) {
+                return null;
+            }
+            Object roles = map.get(ROLES);
+            List<GrantedAuthority> authorities = roles instanceof Collection ? decodeRoles((Collection<?>) roles) : List.of();
+            return new UsernamePasswordAuthenticationToken(map.get(SUBJECT), "N/A", authorities);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.resources.exceptions.StandardError;
+import com.devsuperior.dscatalog.services.exceptions.TooManyRequestsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Turns {@link TooManyRequestsException} raised inside the security filter chain, such as
+ * the client secret check on /oauth/token, into a 429 instead of a server error.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TooManyRequestsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            TooManyRequestsException cause = find(e);
+            if (cause == null || response.isCommitted()) {
+                throw e;
+            }
+
+            HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+            StandardError error = new StandardError();
+            error.setTimestamp(Instant.now());
+            error.setStatus(status.value());
+            error.setError("Too many requests");
+            error.setMessage(cause.getMessage());
+            error.setPath(request.getRequestURI());
+
+            response.setStatus(status.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), error);
+        }
+    }
+
+    public static TooManyRequestsException find(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TooManyRequestsException) {
+                return (TooManyRequestsException) cause;
+            }
+        }
+        return null;
+    }
+}
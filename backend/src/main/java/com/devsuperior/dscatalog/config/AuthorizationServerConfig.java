@@ -1,16 +1,24 @@
 package com.devsuperior.dscatalog.config;
 
 import com.devsuperior.dscatalog.components.JwtTokenEnhancer;
+import com.devsuperior.dscatalog.components.TooManyRequestsFilter;
+import com.devsuperior.dscatalog.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.AuthorizationServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableAuthorizationServer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
+import org.springframework.security.oauth2.provider.error.DefaultWebResponseExceptionTranslator;
+import org.springframework.security.oauth2.provider.error.WebResponseExceptionTranslator;
 import org.springframework.security.oauth2.provider.token.TokenEnhancerChain;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
@@ -29,6 +37,9 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
     @Value("${jwt.duration}")
     private Integer jwtDuration;
 
+    @Value("${jwt.refresh-duration}")
+    private Integer jwtRefreshDuration;
+
     @Autowired
     private JwtTokenEnhancer jwtTokenEnhancer;
 
@@ -44,6 +55,9 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private UserService userService;
+
     @Override
     public void configure(AuthorizationServerSecurityConfigurer security) throws Exception {
         security.tokenKeyAccess("permitAll()").checkTokenAccess("isAuthenticated()");
@@ -55,8 +69,9 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
                 .withClient(clientId)
                 .secret(passwordEncoder.encode(clientSecret))
                 .scopes("read", "write")
-                .authorizedGrantTypes("password")
-                .accessTokenValiditySeconds(jwtDuration);
+                .authorizedGrantTypes("password", "refresh_token")
+                .accessTokenValiditySeconds(jwtDuration)
+                .refreshTokenValiditySeconds(jwtRefreshDuration);
     }
 
     @Override
@@ -64,9 +79,35 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
         TokenEnhancerChain chain = new TokenEnhancerChain();
         chain.setTokenEnhancers(List.of(jwtAccessTokenConverter, jwtTokenEnhancer));
 
+        // The refresh grant reloads the user, so it sees role changes and deletions; each
+        // refresh issues a new refresh token and revokes the one presented
         endpoints.authenticationManager(authenticationManager)
+                .userDetailsService(userService)
+                .reuseRefreshTokens(false)
                 .tokenStore(jwtTokenStore)
                 .accessTokenConverter(jwtAccessTokenConverter)
-                .tokenEnhancer(chain);
+                .tokenEnhancer(chain)
+                .exceptionTranslator(exceptionTranslator());
+    }
+
+    private WebResponseExceptionTranslator<OAuth2Exception> exceptionTranslator() {
+        DefaultWebResponseExceptionTranslator defaultTranslator = new DefaultWebResponseExceptionTranslator();
+        return e -> {
+            if (TooManyRequestsFilter.find(e) == null) {
+                return defaultTranslator.translate(e);
+            }
+            OAuth2Exception error = new OAuth2Exception(e.getMessage()) {
+                @Override
+                public String getOAuth2ErrorCode() {
+                    return "temporarily_unavailable";
+                }
+
+                @Override
+                public int getHttpErrorCode() {
+                    return HttpStatus.TOO_MANY_REQUESTS.value();
+                }
+            };
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+        };
     }
 }
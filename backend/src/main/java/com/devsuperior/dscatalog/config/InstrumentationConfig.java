@@ -0,0 +1,17 @@
+package com.devsuperior.dscatalog.config;
+
+import com.devsuperior.dscatalog.instrumentation.DataSourceInstrumentation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class InstrumentationConfig {
+
+    // Static so the post-processor is registered before the DataSource it wraps is created
+    @Bean
+    static DataSourceInstrumentation dataSourceInstrumentation(ObjectProvider<MeterRegistry> registry) {
+        return new DataSourceInstrumentation(registry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.devsuperior.dscatalog.config;
 
+import com.devsuperior.dscatalog.components.AccessRules;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
@@ -8,11 +9,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -34,11 +37,26 @@ public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
     @Autowired
     private JwtTokenStore tokenStore;
 
-    private static final String[] PUBLIC = { "/oauth/token", "/h2-console/**" };
+    private static final String[] PUBLIC = { "/oauth/token", "/.well-known/jwks.json", "/h2-console/**" };
+
+    // Holds a connection for as long as the client keeps reading, so not public like the other reads
+    private static final String[] EXPORT = { "/products/export/**" };
+
+    // Liveness and readiness probes carry no token; without show-details only the status is returned
+    private static final String[] HEALTH = { "/actuator/health/**" };
 
     private static final String[] OPERATOR_OR_ADMIN = { "/products/**", "/categories/**" };
 
-    private static final String[] ADMIN = { "/users/**" };
+    private static final String[] ADMIN = { "/users/**", "/actuator/**" };
+
+    private static final AccessRules ACCESS_RULES = AccessRules.builder()
+            .add(PUBLIC, AccessRules.permitAll())
+            .add(HttpMethod.GET, HEALTH, AccessRules.permitAll())
+            .add(EXPORT, AccessRules.hasAnyRole("OPERATOR", "ADMIN"))
+            .add(HttpMethod.GET, OPERATOR_OR_ADMIN, AccessRules.permitAll())
+            .add(OPERATOR_OR_ADMIN, AccessRules.hasAnyRole("OPERATOR", "ADMIN"))
+            .add(ADMIN, AccessRules.hasAnyRole("ADMIN"))
+            .anyRequest(AccessRules.authenticated());
 
     @Override
     public void configure(ResourceServerSecurityConfigurer resources) throws Exception {
@@ -53,12 +71,18 @@ public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
             http.headers().frameOptions().disable();
         }
 
+        // authorizeRequests() insists on one mapping; the interceptor it builds then decides
+        // with ACCESS_RULES instead of matching patterns and evaluating expressions
         http.authorizeRequests()
-                .antMatchers(PUBLIC).permitAll()
-                .antMatchers(HttpMethod.GET, OPERATOR_OR_ADMIN).permitAll()
-                .antMatchers(OPERATOR_OR_ADMIN).hasAnyRole("OPERATOR", "ADMIN")
-                .antMatchers(ADMIN).hasRole("ADMIN")
-                .anyRequest().authenticated();
+                .anyRequest().authenticated()
+                .withObjectPostProcessor(new ObjectPostProcessor<FilterSecurityInterceptor>() {
+                    @Override
+                    public <O extends FilterSecurityInterceptor> O postProcess(O interceptor) {
+                        interceptor.setSecurityMetadataSource(ACCESS_RULES);
+                        interceptor.setAccessDecisionManager(ACCESS_RULES);
+                        return interceptor;
+                    }
+                });
 
         http.cors().configurationSource(corsConfigurationSource());
     }
@@ -1,5 +1,14 @@
 package com.devsuperior.dscatalog.config;
 
+import com.devsuperior.dscatalog.components.BoundedPasswordEncoder;
+import com.devsuperior.dscatalog.components.CachingJwtTokenStore;
+import com.devsuperior.dscatalog.components.JwtKeyRing;
+import com.devsuperior.dscatalog.components.KeyIdJwtAccessTokenConverter;
+import com.devsuperior.dscatalog.components.RemoteJwkSet;
+import com.devsuperior.dscatalog.components.SlimAccessTokenConverter;
+import com.devsuperior.dscatalog.services.TokenRevocationList;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +19,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 @EnableWebSecurity
 public class WebSecurityConfig {
@@ -17,21 +29,78 @@ public class WebSecurityConfig {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    @Value("${catalog.security.jwt.profile}")
+    private String jwtProfile;
+
+    @Value("${catalog.security.jwt.keystore.location}")
+    private String keystoreLocation;
+
+    @Value("${catalog.security.jwt.keystore.password}")
+    private String keystorePassword;
+
+    @Value("${catalog.security.jwt.keystore.aliases}")
+    private List<String> keyAliases;
+
+    @Value("${catalog.security.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    @Value("${catalog.security.jwt.jwk-set-refresh}")
+    private Duration jwkSetRefresh;
+
+    @Value("${catalog.security.token-cache.max-size}")
+    private long tokenCacheMaxSize;
+
+    @Value("${catalog.security.bcrypt.strength}")
+    private int bcryptStrength;
+
+    @Value("${catalog.security.hashing.threads}")
+    private int hashingThreads;
+
+    @Value("${catalog.security.hashing.queue-capacity}")
+    private int hashingQueueCapacity;
+
+    @Value("${catalog.security.hashing.timeout}")
+    private Duration hashingTimeout;
+
     @Bean
     BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(bcryptStrength, threads, hashingQueueCapacity, hashingTimeout);
+    }
+
+    @Bean
+    JwtKeyRing jwtKeyRing() {
+        if (keystoreLocation.isBlank()) {
+            return JwtKeyRing.empty();
+        }
+        return JwtKeyRing.load(keystoreLocation, keystorePassword, keyAliases);
     }
 
+    // A JWK set URI makes this a validating node that holds no keys of its own; a keystore
+    // signs with key pairs; otherwise tokens are signed with the shared jwt.secret
     @Bean
     JwtAccessTokenConverter accessTokenConverter() {
-        JwtAccessTokenConverter tokenConverter = new JwtAccessTokenConverter();
-        tokenConverter.setSigningKey(jwtSecret);
+        JwtAccessTokenConverter tokenConverter;
+        JwtKeyRing keyRing = jwtKeyRing();
+        if (!jwkSetUri.isBlank()) {
+            tokenConverter = new KeyIdJwtAccessTokenConverter(null, new RemoteJwkSet(jwkSetUri, jwkSetRefresh));
+        } else if (!keyRing.isEmpty()) {
+            tokenConverter = new KeyIdJwtAccessTokenConverter(keyRing, keyRing);
+        } else {
+            tokenConverter = new JwtAccessTokenConverter();
+            tokenConverter.setSigningKey(jwtSecret);
+        }
+        if ("slim".equalsIgnoreCase(jwtProfile)) {
+            tokenConverter.setAccessTokenConverter(new SlimAccessTokenConverter());
+        }
         return tokenConverter;
     }
 
     @Bean
-    JwtTokenStore tokenStore() {
-        return new JwtTokenStore(accessTokenConverter());
+    JwtTokenStore tokenStore(TokenRevocationList revocations, ObjectProvider<MeterRegistry> registry) {
+        CachingJwtTokenStore tokenStore = new CachingJwtTokenStore(accessTokenConverter(), tokenCacheMaxSize, revocations);
+        registry.ifAvailable(tokenStore::registerMetrics);
+        return tokenStore;
     }
 
     @Bean
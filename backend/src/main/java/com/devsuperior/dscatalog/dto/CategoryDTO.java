@@ -1,9 +1,11 @@
 package com.devsuperior.dscatalog.dto;
 
 import com.devsuperior.dscatalog.entities.Category;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.Instant;
 
 public class CategoryDTO implements Serializable {
     @Serial
@@ -11,6 +13,9 @@ public class CategoryDTO implements Serializable {
 
     private Long id;
     private String name;
+    // Feeds the ETag and Last-Modified headers, not the body
+    @JsonIgnore
+    private Instant lastModified;
 
     public CategoryDTO() {
     }
@@ -23,6 +28,7 @@ public class CategoryDTO implements Serializable {
     public CategoryDTO(Category entity){
         this.id = entity.getId();
         this.name = entity.getName();
+        this.lastModified = entity.getUpdatedAt() != null ? entity.getUpdatedAt() : entity.getCreatedAt();
     }
 
     public Long getId() {
@@ -41,5 +47,11 @@ public class CategoryDTO implements Serializable {
         this.name = name;
     }
 
+    public Instant getLastModified() {
+        return lastModified;
+    }
 
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
 }
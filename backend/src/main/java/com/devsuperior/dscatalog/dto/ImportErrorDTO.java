@@ -0,0 +1,31 @@
+package com.devsuperior.dscatalog.dto;
+
+import com.devsuperior.dscatalog.resources.exceptions.FieldMessage;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportErrorDTO implements Serializable {
+    private long record;
+    private List<FieldMessage> errors = new ArrayList<>();
+
+    public ImportErrorDTO() {
+    }
+
+    public ImportErrorDTO(long record) {
+        this.record = record;
+    }
+
+    public long getRecord() {
+        return record;
+    }
+
+    public List<FieldMessage> getErrors() {
+        return errors;
+    }
+
+    public void addError(String fieldName, String message) {
+        errors.add(new FieldMessage(fieldName, message));
+    }
+}
@@ -0,0 +1,43 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReportDTO implements Serializable {
+    private long received;
+    private long imported;
+    private long rejected;
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<ImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void addReceived() {
+        received++;
+    }
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public void reject(ImportErrorDTO error, int maxReportedErrors) {
+        rejected++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(error);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.devsuperior.dscatalog.dto;
 
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.PastOrPresent;
@@ -25,6 +26,12 @@ public class ProductDTO implements Serializable {
     @PastOrPresent(message = "A data não pode ser futura")
     private Instant date;
     private List<CategoryDTO> categories = new ArrayList<>();
+    // Sent back on updates to detect edits made in between
+    private Long version;
+    // Latest change to the product or to one of its categories; feeds the ETag and
+    // Last-Modified headers, not the body
+    @JsonIgnore
+    private Instant lastModified;
 
     public ProductDTO() {
     }
@@ -45,11 +52,20 @@ public class ProductDTO implements Serializable {
         this.price = entity.getPrice();
         this.imgUrl = entity.getImgUrl();
         this.date = entity.getDate();
+        this.version = entity.getVersion();
+        this.lastModified = entity.getUpdatedAt();
     }
 
     public ProductDTO(Product entity, Set<Category> categories) {
         this(entity);
-        categories.forEach(item -> this.categories.add(new CategoryDTO(item)));
+        categories.forEach(item -> addCategory(new CategoryDTO(item)));
+    }
+
+    public void addCategory(CategoryDTO category) {
+        this.categories.add(category);
+        if (lastModified == null || (category.getLastModified() != null && category.getLastModified().isAfter(lastModified))) {
+            lastModified = category.getLastModified();
+        }
     }
 
     public Long getId() {
@@ -107,4 +123,20 @@ public class ProductDTO implements Serializable {
     public void setCategories(List<CategoryDTO> categories) {
         this.categories = categories;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
 }
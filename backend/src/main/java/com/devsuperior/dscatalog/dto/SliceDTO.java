@@ -0,0 +1,45 @@
+package com.devsuperior.dscatalog.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class SliceDTO<T> implements Serializable {
+    private List<T> content;
+    private int number;
+    private int size;
+    private boolean hasNext;
+    private Long approximateTotalElements;
+
+    public SliceDTO() {
+    }
+
+    public SliceDTO(Slice<T> slice, Long approximateTotalElements) {
+        this.content = slice.getContent();
+        this.number = slice.getNumber();
+        this.size = slice.getSize();
+        this.hasNext = slice.hasNext();
+        this.approximateTotalElements = approximateTotalElements;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public Long getApproximateTotalElements() {
+        return approximateTotalElements;
+    }
+}
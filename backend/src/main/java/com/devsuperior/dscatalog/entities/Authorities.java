@@ -0,0 +1,28 @@
+package com.devsuperior.dscatalog.entities;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One shared, immutable GrantedAuthority per role name. Users, decoded tokens and the
+ * access rules all hold these instances, so checking a role compares references before
+ * it compares strings, and a principal lists its roles without creating authorities.
+ */
+public final class Authorities {
+    // Declared first: the constants below are interned through it
+    private static final Map<String, GrantedAuthority> INTERNED = new ConcurrentHashMap<>();
+
+    public static final GrantedAuthority OPERATOR = of("ROLE_OPERATOR");
+    public static final GrantedAuthority ADMIN = of("ROLE_ADMIN");
+
+    private Authorities() {
+    }
+
+    public static GrantedAuthority of(String authority) {
+        GrantedAuthority existing = INTERNED.get(authority);
+        return existing != null ? existing : INTERNED.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+}
@@ -1,14 +1,22 @@
 package com.devsuperior.dscatalog.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.Instant;
@@ -17,7 +25,12 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "tb_product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@Table(name = "tb_product", indexes = {
+        @Index(name = "idx_product_price", columnList = "price, id"),
+        @Index(name = "idx_product_date", columnList = "date, id")
+})
 public class Product implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -30,12 +43,19 @@ public class Product implements Serializable {
     private String imgUrl;
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant date;
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private Instant updatedAt;
+    @Version
+    private Long version;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product-categories")
     @JoinTable(
             name = "tb_product_category",
             joinColumns = @JoinColumn(name = "product_id"),
-            inverseJoinColumns = @JoinColumn(name = "category_id")
+            inverseJoinColumns = @JoinColumn(name = "category_id"),
+            // The primary key leads with product_id; this one serves lookups by category
+            indexes = @Index(name = "idx_product_category_category", columnList = "category_id, product_id")
     )
     private Set<Category> categories = new HashSet<>();
 
@@ -99,6 +119,24 @@ public class Product implements Serializable {
         this.date = date;
     }
 
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void preUpdate(){
+        updatedAt = Instant.now();
+    }
+
     public Set<Category> getCategories() {
         return categories;
     }
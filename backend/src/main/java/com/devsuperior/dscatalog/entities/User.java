@@ -1,7 +1,7 @@
 package com.devsuperior.dscatalog.entities;
 
+import org.hibernate.annotations.BatchSize;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import javax.persistence.Column;
@@ -14,12 +14,13 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "tb_user")
@@ -33,6 +34,8 @@ public class User implements UserDetails, Serializable {
     private String email;
     private String password;
 
+    // Pages of users load their roles in one statement instead of one per user
+    @BatchSize(size = 100)
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "tb_user_role",
@@ -41,6 +44,10 @@ public class User implements UserDetails, Serializable {
     )
     private Set<Role> roles = new HashSet<>();
 
+    // Built from roles on first use; getRoles() drops it, since callers change the set in place
+    @Transient
+    private transient List<GrantedAuthority> authorities;
+
     public User() {
     }
 
@@ -86,7 +93,17 @@ public class User implements UserDetails, Serializable {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return this.getRoles().stream().map((role) -> new SimpleGrantedAuthority(role.getAuthority())).collect(Collectors.toList());
+        List<GrantedAuthority> authorities = this.authorities;
+        if (authorities == null) {
+            GrantedAuthority[] interned = new GrantedAuthority[roles.size()];
+            int i = 0;
+            for (Role role : roles) {
+                interned[i++] = Authorities.of(role.getAuthority());
+            }
+            authorities = List.of(interned);
+            this.authorities = authorities;
+        }
+        return authorities;
     }
 
     public String getPassword() {
@@ -123,6 +140,7 @@ public class User implements UserDetails, Serializable {
     }
 
     public Set<Role> getRoles() {
+        authorities = null;
         return roles;
     }
 
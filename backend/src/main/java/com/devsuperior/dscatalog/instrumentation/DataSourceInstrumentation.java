@@ -0,0 +1,31 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource so that every statement, whether it comes from
+ * Hibernate or from JdbcTemplate, goes through {@link StatementListener}.
+ */
+public class DataSourceInstrumentation implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public DataSourceInstrumentation(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create((DataSource) bean)
+                .name(beanName)
+                .listener(new StatementListener(registry))
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most JDBC statements a service method may run, whatever the page size. A method
+ * that goes over it is almost always loading an association per row. What happens then
+ * is set by catalog.instrumentation.query-budgets: off, log or fail.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface QueryBudget {
+    int value();
+}
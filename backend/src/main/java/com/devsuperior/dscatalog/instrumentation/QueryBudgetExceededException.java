@@ -0,0 +1,22 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import java.util.List;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    private final long statements;
+    private final int budget;
+
+    public QueryBudgetExceededException(String method, long statements, int budget, List<String> queries) {
+        super(method + " ran " + statements + " statements, budget is " + budget + ":\n  " + String.join("\n  ", queries));
+        this.statements = statements;
+        this.budget = budget;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+}
@@ -0,0 +1,75 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the SQL statements run on the current thread while a recording is open. The
+ * request filter opens one per request; anything else on the thread (service-method
+ * measurements, tests) reads the running totals before and after the work it measures.
+ */
+public final class QueryRecorder {
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private QueryRecorder() {
+    }
+
+    public static Recording start(int maxQueries) {
+        Recording recording = new Recording(maxQueries);
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The open recording, or null when the thread is not being recorded.
+     */
+    public static Recording current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql, long nanos) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            recording.add(sql, nanos);
+        }
+    }
+
+    public static final class Recording {
+        private final int maxQueries;
+        private final List<String> queries = new ArrayList<>();
+        private long statements;
+        private long nanos;
+
+        private Recording(int maxQueries) {
+            this.maxQueries = maxQueries;
+        }
+
+        private void add(String sql, long elapsed) {
+            statements++;
+            nanos += elapsed;
+            if (queries.size() < maxQueries) {
+                queries.add(sql);
+            }
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * The first statements run, up to the recording's limit.
+         */
+        public List<String> getQueries() {
+            return Collections.unmodifiableList(queries);
+        }
+    }
+}
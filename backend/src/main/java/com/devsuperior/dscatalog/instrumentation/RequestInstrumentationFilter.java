@@ -0,0 +1,92 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how many statements each request runs and how long they take, tagged with the
+ * matched route, and keeps the query list of requests slower than the threshold. Sits
+ * outside the security chain so principal lookups count against the request too.
+ * Streamed (async) responses are only measured up to the hand-off to the async thread.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestInstrumentationFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RequestInstrumentationFilter.class);
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    @Value("${catalog.instrumentation.slow-request-threshold}")
+    private Duration slowRequestThreshold;
+
+    @Value("${catalog.instrumentation.max-logged-queries}")
+    private int maxLoggedQueries;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryRecorder.Recording recording = QueryRecorder.start(maxLoggedQueries);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            QueryRecorder.stop();
+            record(request, response, recording, elapsed);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response,
+                        QueryRecorder.Recording recording, long elapsed) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+
+        DistributionSummary.builder("catalog.request.statements")
+                .description("JDBC statements executed per request")
+                .tag("uri", uri).tag("method", method)
+                .register(registry)
+                .record(recording.getStatements());
+        Timer.builder("catalog.request.sql.time")
+                .description("Time spent in JDBC statements per request")
+                .tag("uri", uri).tag("method", method)
+                .register(registry)
+                .record(recording.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (elapsed < slowRequestThreshold.toNanos()) {
+            return;
+        }
+        SlowRequest slow = new SlowRequest(Instant.now(), method, request.getRequestURI(), response.getStatus(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), recording.getStatements(),
+                TimeUnit.NANOSECONDS.toMillis(recording.getNanos()), recording.getQueries());
+        slowRequestLog.add(slow);
+        if (logger.isWarnEnabled()) {
+            logger.warn("Slow request " + method + " " + slow.getUri() + " took " + slow.getMillis() + " ms, " +
+                    slow.getStatements() + " statements in " + slow.getSqlMillis() + " ms:\n  " +
+                    String.join("\n  ", slow.getQueries()));
+        }
+    }
+}
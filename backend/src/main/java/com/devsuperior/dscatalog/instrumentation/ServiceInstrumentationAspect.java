@@ -0,0 +1,93 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public service method, counts the statements it runs and holds methods
+ * annotated with {@link QueryBudget} to their budget. Ordered ahead of the transaction
+ * interceptor so that statements flushed at commit are included.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceInstrumentationAspect {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceInstrumentationAspect.class);
+
+    public enum BudgetMode {OFF, LOG, FAIL}
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${catalog.instrumentation.max-logged-queries}")
+    private int maxLoggedQueries;
+
+    @Value("${catalog.instrumentation.query-budgets}")
+    private BudgetMode budgetMode;
+
+    @Around("within(com.devsuperior.dscatalog.services..*) && @within(org.springframework.stereotype.Service)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryRecorder.Recording recording = QueryRecorder.current();
+        boolean owner = recording == null;
+        if (owner) {
+            recording = QueryRecorder.start(maxLoggedQueries);
+        }
+        long statementsBefore = recording.getStatements();
+        int queriesBefore = recording.getQueries().size();
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (owner) {
+                QueryRecorder.stop();
+            }
+            Timer.builder("catalog.service.calls")
+                    .description("Service method latency")
+                    .tag("service", service).tag("method", method)
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("catalog.service.statements")
+                    .description("JDBC statements executed per service call")
+                    .tag("service", service).tag("method", method)
+                    .register(registry)
+                    .record(recording.getStatements() - statementsBefore);
+        }
+        checkBudget(joinPoint, service + "." + method, recording.getStatements() - statementsBefore,
+                recording.getQueries().subList(queriesBefore, recording.getQueries().size()));
+        return result;
+    }
+
+    private void checkBudget(ProceedingJoinPoint joinPoint, String method, long statements, List<String> queries) {
+        if (budgetMode == BudgetMode.OFF) {
+            return;
+        }
+        QueryBudget budget = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(QueryBudget.class);
+        if (budget == null || statements <= budget.value()) {
+            return;
+        }
+        QueryBudgetExceededException e = new QueryBudgetExceededException(method, statements, budget.value(), queries);
+        if (budgetMode == BudgetMode.FAIL) {
+            throw e;
+        }
+        logger.warn(e.getMessage());
+    }
+}
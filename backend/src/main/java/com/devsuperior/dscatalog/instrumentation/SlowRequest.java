@@ -0,0 +1,59 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import java.time.Instant;
+import java.util.List;
+
+public class SlowRequest {
+    private final Instant timestamp;
+    private final String method;
+    private final String uri;
+    private final int status;
+    private final long millis;
+    private final long statements;
+    private final long sqlMillis;
+    private final List<String> queries;
+
+    public SlowRequest(Instant timestamp, String method, String uri, int status, long millis, long statements,
+                       long sqlMillis, List<String> queries) {
+        this.timestamp = timestamp;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.millis = millis;
+        this.statements = statements;
+        this.sqlMillis = sqlMillis;
+        this.queries = List.copyOf(queries);
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getSqlMillis() {
+        return sqlMillis;
+    }
+
+    public List<String> getQueries() {
+        return queries;
+    }
+}
@@ -0,0 +1,42 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The most recent slow requests, newest first, served at /actuator/slowrequests.
+ */
+@Component
+@Endpoint(id = "slowrequests")
+public class SlowRequestLog {
+    private final int capacity;
+    private final Deque<SlowRequest> requests;
+
+    public SlowRequestLog(@Value("${catalog.instrumentation.slow-request-history}") int capacity) {
+        this.capacity = capacity;
+        this.requests = new ArrayDeque<>(capacity);
+    }
+
+    public synchronized void add(SlowRequest request) {
+        if (capacity <= 0) {
+            return;
+        }
+        if (requests.size() == capacity) {
+            requests.removeLast();
+        }
+        requests.addFirst(request);
+    }
+
+    @ReadOperation
+    public synchronized List<SlowRequest> recent() {
+        return Collections.unmodifiableList(new ArrayList<>(requests));
+    }
+}
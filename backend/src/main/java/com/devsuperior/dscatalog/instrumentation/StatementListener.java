@@ -0,0 +1,62 @@
+package com.devsuperior.dscatalog.instrumentation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts every JDBC execution (a batch counts once, as one round trip) for the
+ * application-wide meters and for the recording open on the calling thread. Executions are
+ * timed with System.nanoTime here, since the proxy's own elapsed time is in whole
+ * milliseconds and most statements finish in less.
+ */
+class StatementListener implements QueryExecutionListener {
+    private final ObjectProvider<MeterRegistry> registry;
+    // Start of the statement running on each thread; a thread runs one at a time
+    private final ThreadLocal<long[]> started = ThreadLocal.withInitial(() -> new long[1]);
+    private volatile Counter statements;
+    private volatile Timer time;
+
+    StatementListener(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        started.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long nanos = System.nanoTime() - started.get()[0];
+        if (time == null) {
+            register();
+        }
+        statements.increment();
+        time.record(nanos, TimeUnit.NANOSECONDS);
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        QueryRecorder.record(execInfo.isBatch() ? sql + " [batch of " + execInfo.getBatchSize() + "]" : sql, nanos);
+    }
+
+    // The registry's own binders depend on the DataSource, so it is looked up on first use
+    // rather than while the DataSource is being wrapped
+    private synchronized void register() {
+        if (time != null) {
+            return;
+        }
+        MeterRegistry meterRegistry = registry.getObject();
+        statements = Counter.builder("catalog.sql.statements")
+                .description("JDBC statements executed")
+                .register(meterRegistry);
+        time = Timer.builder("catalog.sql.time")
+                .description("Time spent executing JDBC statements")
+                .register(meterRegistry);
+    }
+}
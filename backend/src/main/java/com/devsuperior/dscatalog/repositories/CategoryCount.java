@@ -0,0 +1,19 @@
+package com.devsuperior.dscatalog.repositories;
+
+public class CategoryCount {
+    private final Long categoryId;
+    private final long count;
+
+    public CategoryCount(Long categoryId, long count) {
+        this.categoryId = categoryId;
+        this.count = count;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,53 @@
+package com.devsuperior.dscatalog.repositories;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a listing ordered by one property with the id as tie-breaker. The first
+ * page has no last value; every following page starts right after {@code (value, id)}.
+ */
+public class Keyset {
+    private final String property;
+    private final Sort.Direction direction;
+    private final String value;
+    private final Long id;
+
+    private Keyset(String property, Sort.Direction direction, String value, Long id) {
+        this.property = property;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static Keyset first(String property, Sort.Direction direction) {
+        return new Keyset(property, direction, null, null);
+    }
+
+    public static Keyset after(String property, Sort.Direction direction, String value, Long id) {
+        return new Keyset(property, direction, value, id);
+    }
+
+    public Keyset next(Object lastValue, Long lastId) {
+        return new Keyset(property, direction, String.valueOf(lastValue), lastId);
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,62 @@
+package com.devsuperior.dscatalog.repositories;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.Instant;
+import java.util.List;
+
+final class KeysetQueries {
+
+    private KeysetQueries() {
+    }
+
+    static Predicate after(CriteriaBuilder cb, Root<?> root, Keyset keyset) {
+        Path<Long> id = root.get("id");
+        boolean ascending = keyset.getDirection().isAscending();
+        if (keyset.isFirst()) {
+            return cb.conjunction();
+        }
+
+        Predicate afterId = ascending ? cb.greaterThan(id, keyset.getId()) : cb.lessThan(id, keyset.getId());
+        if ("id".equals(keyset.getProperty())) {
+            return afterId;
+        }
+
+        Path<Comparable<Object>> property = root.get(keyset.getProperty());
+        Comparable<Object> value = parse(property, keyset.getValue());
+        Predicate afterValue = ascending ? cb.greaterThan(property, value) : cb.lessThan(property, value);
+        return cb.or(afterValue, cb.and(cb.equal(property, value), afterId));
+    }
+
+    static List<Order> orderBy(CriteriaBuilder cb, Root<?> root, Keyset keyset) {
+        Expression<?> id = root.get("id");
+        if ("id".equals(keyset.getProperty())) {
+            return List.of(order(cb, id, keyset));
+        }
+        return List.of(order(cb, root.get(keyset.getProperty()), keyset), order(cb, id, keyset));
+    }
+
+    private static Order order(CriteriaBuilder cb, Expression<?> expression, Keyset keyset) {
+        return keyset.getDirection().isAscending() ? cb.asc(expression) : cb.desc(expression);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> parse(Path<?> property, String value) {
+        Class<?> type = property.getJavaType();
+        Object parsed;
+        if (type == Long.class) {
+            parsed = Long.valueOf(value);
+        } else if (type == Double.class) {
+            parsed = Double.valueOf(value);
+        } else if (type == Instant.class) {
+            parsed = Instant.parse(value);
+        } else {
+            parsed = value;
+        }
+        return (Comparable<Object>) parsed;
+    }
+}
@@ -0,0 +1,14 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+public interface ProductExportRepository {
+
+    /**
+     * Streams every product, optionally restricted to one category and to rows updated at
+     * or after {@code updatedSince}, ordered by product id so a product's category rows are
+     * adjacent. The stream holds an open cursor and must be closed inside the transaction.
+     */
+    Stream<ProductExportRow> streamForExport(Long categoryId, Instant updatedSince, int fetchSize);
+}
@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.repositories;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ProductExportRepositoryImpl implements ProductExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<ProductExportRow> streamForExport(Long categoryId, Instant updatedSince, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductExportRow> query = cb.createQuery(ProductExportRow.class);
+        Root<Product> root = query.from(Product.class);
+        Join<Product, Category> cats = root.join("categories", JoinType.LEFT);
+
+        // Only filters that apply end up in the SQL, so no untyped null parameters reach the driver
+        List<Predicate> filters = new ArrayList<>();
+        if (categoryId != null) {
+            Subquery<Long> inCategory = query.subquery(Long.class);
+            Root<Product> correlated = inCategory.correlate(root);
+            Join<Product, Category> filterCats = correlated.join("categories");
+            inCategory.select(filterCats.get("id")).where(cb.equal(filterCats.get("id"), categoryId));
+            filters.add(cb.exists(inCategory));
+        }
+        if (updatedSince != null) {
+            filters.add(cb.greaterThanOrEqualTo(root.get("updatedAt"), updatedSince));
+        }
+
+        query.select(cb.construct(ProductExportRow.class,
+                        root.get("id"), root.get("name"), root.get("description"), root.get("price"),
+                        root.get("imgUrl"), root.get("date"), root.get("updatedAt"),
+                        cats.get("id"), cats.get("name")))
+                .where(filters.toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("id")), cb.asc(cats.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,68 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+
+/**
+ * One product/category pair read by the export cursor. Products without categories come
+ * back once with a null category.
+ */
+public class ProductExportRow {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Double price;
+    private final String imgUrl;
+    private final Instant date;
+    private final Instant updatedAt;
+    private final Long categoryId;
+    private final String categoryName;
+
+    public ProductExportRow(Long id, String name, String description, Double price, String imgUrl,
+                            Instant date, Instant updatedAt, Long categoryId, String categoryName) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.imgUrl = imgUrl;
+        this.date = date;
+        this.updatedAt = updatedAt;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public String getImgUrl() {
+        return imgUrl;
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+}
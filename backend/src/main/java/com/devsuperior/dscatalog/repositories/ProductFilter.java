@@ -0,0 +1,80 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Structured filters for product listings. Every bound is optional and inclusive; category
+ * ids match a product linked to any of them, or to all of them when {@code matchAll} is set.
+ */
+public class ProductFilter {
+    private static final ProductFilter NONE = new ProductFilter(List.of(), false, null, null, null, null);
+
+    private final List<Long> categoryIds;
+    private final boolean matchAll;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final Instant dateFrom;
+    private final Instant dateTo;
+
+    public ProductFilter(List<Long> categoryIds, boolean matchAll, Double minPrice, Double maxPrice,
+                         Instant dateFrom, Instant dateTo) {
+        this.categoryIds = categoryIds == null ? List.of() : List.copyOf(categoryIds);
+        this.matchAll = matchAll;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+    }
+
+    public static ProductFilter none() {
+        return NONE;
+    }
+
+    /**
+     * The filter behind the original {@code categoryId} parameter, where 0 means every category.
+     */
+    public static ProductFilter ofCategory(Long categoryId) {
+        return categoryId == null || categoryId == 0 ? NONE : new ProductFilter(List.of(categoryId), false, null, null, null, null);
+    }
+
+    /**
+     * True when at most one category is asked for and nothing else, which the cached
+     * single-category queries already answer.
+     */
+    public boolean isSingleCategory() {
+        return categoryIds.size() <= 1 && minPrice == null && maxPrice == null && dateFrom == null && dateTo == null;
+    }
+
+    /**
+     * Identifies the filter in caches keyed by listing; equal filters give equal keys.
+     */
+    public String key() {
+        return categoryIds + (matchAll ? " all" : " any") + " price " + minPrice + ".." + maxPrice
+                + " date " + dateFrom + ".." + dateTo;
+    }
+
+    public List<Long> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public boolean isMatchAll() {
+        return matchAll;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Instant getDateFrom() {
+        return dateFrom;
+    }
+
+    public Instant getDateTo() {
+        return dateTo;
+    }
+}
@@ -0,0 +1,24 @@
+package com.devsuperior.dscatalog.repositories;
+
+import com.devsuperior.dscatalog.entities.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProductFilterRepository {
+
+    /**
+     * A page of product ids matching the filter and, when {@code also} is not null, that
+     * specification too.
+     */
+    Page<Long> findIdsMatching(ProductFilter filter, Specification<Product> also, Pageable pageable);
+
+    /**
+     * A slice of product ids matching the filter, read one row past the page instead of
+     * counted.
+     */
+    Slice<Long> findIdsSliceMatching(ProductFilter filter, Pageable pageable);
+
+    long countMatching(ProductFilter filter, Specification<Product> also);
+}
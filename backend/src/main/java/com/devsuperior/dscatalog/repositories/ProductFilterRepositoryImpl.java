@@ -0,0 +1,76 @@
+package com.devsuperior.dscatalog.repositories;
+
+import com.devsuperior.dscatalog.entities.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class ProductFilterRepositoryImpl implements ProductFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findIdsMatching(ProductFilter filter, Specification<Product> also, Pageable pageable) {
+        Specification<Product> spec = ProductSpecifications.matching(filter).and(also);
+
+        TypedQuery<Long> typedQuery = idsQuery(spec, pageable);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        Specification<Product> countSpec = spec;
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(countSpec));
+    }
+
+    @Override
+    public Slice<Long> findIdsSliceMatching(ProductFilter filter, Pageable pageable) {
+        List<Long> ids = idsQuery(ProductSpecifications.matching(filter), pageable)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    @Override
+    public long countMatching(ProductFilter filter, Specification<Product> also) {
+        return count(ProductSpecifications.matching(filter).and(also));
+    }
+
+    private TypedQuery<Long> idsQuery(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(root.get("id")).where(toPredicate(spec, root, query, cb));
+        query.orderBy(toOrders(pageable.getSort(), root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root)).where(toPredicate(spec, root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] toPredicate(Specification<Product> spec, Root<Product> root,
+                                           CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        return predicate == null ? new Predicate[0] : new Predicate[]{predicate};
+    }
+}
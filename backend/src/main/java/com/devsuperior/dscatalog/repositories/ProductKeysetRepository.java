@@ -0,0 +1,8 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.util.List;
+
+public interface ProductKeysetRepository {
+
+    List<Long> findIdsAfter(ProductFilter filter, Keyset keyset, int limit);
+}
@@ -0,0 +1,46 @@
+package com.devsuperior.dscatalog.repositories;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductKeysetRepositoryImpl implements ProductKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIdsAfter(ProductFilter filter, Keyset keyset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate matching = ProductSpecifications.matching(filter).toPredicate(root, query, cb);
+        if (matching != null) {
+            where.add(matching);
+        }
+        if (filter.getCategoryIds().isEmpty()) {
+            // Like the paged listing, only products linked to some category
+            Subquery<Long> linked = query.subquery(Long.class);
+            Join<Product, Category> cats = linked.correlate(root).join("categories");
+            where.add(cb.exists(linked.select(cats.get("id"))));
+        }
+        where.add(KeysetQueries.after(cb, root, keyset));
+
+        query.select(root.get("id"))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(KeysetQueries.orderBy(cb, root, keyset));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
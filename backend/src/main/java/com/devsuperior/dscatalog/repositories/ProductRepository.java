@@ -3,27 +3,59 @@ package com.devsuperior.dscatalog.repositories;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.domain.Pageable;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductKeysetRepository, ProductExportRepository,
+        ProductFilterRepository {
 
-    @Query("select distinct obj from Product obj " +
-            "inner join obj.categories as cats where " +
-            "(:categories IS NULL OR cats IN (:categories)) AND " +
-            "(lower(obj.name) like lower(concat('%',:name,'%'))) ")
-    Page<Product> find(
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("select obj.id from Product obj where " +
+            "exists (select cats from obj.categories cats where " +
+            "(:categories IS NULL OR cats IN (:categories)))")
+    Page<Long> findIds(
             List<Category> categories,
-            String name,
             Pageable pageable);
 
+    @Query("select obj.id from Product obj where " +
+            "exists (select cats from obj.categories cats where " +
+            "(:categories IS NULL OR cats IN (:categories)))")
+    Slice<Long> findIdsSlice(
+            List<Category> categories,
+            Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("select count(obj.id) from Product obj where " +
+            "exists (select cats from obj.categories cats where " +
+            "(:categories IS NULL OR cats IN (:categories)))")
+    long countIds(List<Category> categories);
+
     @Query("select obj from Product obj join fetch obj.categories where " +
-            "obj in :products")
-    List<Product> findProductsWithCategories(List<Product> products);
+            "obj.id in :ids")
+    List<Product> findProductsWithCategoriesByIds(List<Long> ids);
+
+    @Query("select new com.devsuperior.dscatalog.repositories.ProductSummaryRow(" +
+            "obj.id, obj.name, obj.price, obj.imgUrl, obj.date, obj.updatedAt, cats.id) " +
+            "from Product obj left join obj.categories cats where obj.id in :ids")
+    List<ProductSummaryRow> findSummariesByIds(List<Long> ids);
+
+    @Query("select new com.devsuperior.dscatalog.repositories.CategoryCount(cats.id, count(obj.id)) " +
+            "from Product obj join obj.categories cats group by cats.id")
+    List<CategoryCount> countByCategory();
+
+    @Query("select new com.devsuperior.dscatalog.repositories.CategoryCount(cats.id, count(obj.id)) " +
+            "from Product obj join obj.categories cats where obj.id in :ids group by cats.id")
+    List<CategoryCount> countByCategoryForIds(List<Long> ids);
+
+    @Query("select cats.id from Product obj join obj.categories cats where obj.id = :id")
+    List<Long> findCategoryIds(Long id);
 }
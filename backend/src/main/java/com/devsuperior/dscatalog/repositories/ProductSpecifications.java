@@ -0,0 +1,85 @@
+package com.devsuperior.dscatalog.repositories;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Predicates behind {@link ProductFilter}. Only the filters that are set end up in the SQL,
+ * so every combination stays a plain conjunction the indexes on price, date and
+ * (category_id, product_id) can serve.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilter filter) {
+        Specification<Product> spec = Specification.where(null);
+        if (!filter.getCategoryIds().isEmpty()) {
+            spec = spec.and(filter.isMatchAll()
+                    ? inAllCategories(filter.getCategoryIds())
+                    : inAnyCategory(filter.getCategoryIds()));
+        }
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            spec = spec.and(priceBetween(filter.getMinPrice(), filter.getMaxPrice()));
+        }
+        if (filter.getDateFrom() != null || filter.getDateTo() != null) {
+            spec = spec.and(dateBetween(filter.getDateFrom(), filter.getDateTo()));
+        }
+        return spec;
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    public static Specification<Product> inAnyCategory(List<Long> categoryIds) {
+        return (root, query, cb) -> {
+            Subquery<Long> linked = query.subquery(Long.class);
+            Join<Product, Category> cats = linked.correlate(root).join("categories");
+            linked.select(cats.get("id")).where(cats.get("id").in(categoryIds));
+            return cb.exists(linked);
+        };
+    }
+
+    // One grouped probe per product instead of one EXISTS per category
+    public static Specification<Product> inAllCategories(List<Long> categoryIds) {
+        long wanted = categoryIds.stream().distinct().count();
+        return (root, query, cb) -> {
+            Subquery<Long> linked = query.subquery(Long.class);
+            Join<Product, Category> cats = linked.correlate(root).join("categories");
+            linked.select(cb.count(cats.get("id"))).where(cats.get("id").in(categoryIds));
+            return cb.equal(linked, wanted);
+        };
+    }
+
+    public static Specification<Product> priceBetween(Double min, Double max) {
+        return (root, query, cb) -> {
+            if (min == null) {
+                return cb.lessThanOrEqualTo(root.get("price"), max);
+            }
+            return max == null
+                    ? cb.greaterThanOrEqualTo(root.get("price"), min)
+                    : cb.between(root.get("price"), min, max);
+        };
+    }
+
+    public static Specification<Product> dateBetween(Instant from, Instant to) {
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.get("date"), to);
+            }
+            return to == null
+                    ? cb.greaterThanOrEqualTo(root.get("date"), from)
+                    : cb.between(root.get("date"), from, to);
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+
+/**
+ * One product/category pair of a listing page, without the description. Products without
+ * categories come back once with a null category.
+ */
+public class ProductSummaryRow {
+    private final Long id;
+    private final String name;
+    private final Double price;
+    private final String imgUrl;
+    private final Instant date;
+    private final Instant updatedAt;
+    private final Long categoryId;
+
+    public ProductSummaryRow(Long id, String name, Double price, String imgUrl, Instant date, Instant updatedAt,
+                             Long categoryId) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.imgUrl = imgUrl;
+        this.date = date;
+        this.updatedAt = updatedAt;
+        this.categoryId = categoryId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public String getImgUrl() {
+        return imgUrl;
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
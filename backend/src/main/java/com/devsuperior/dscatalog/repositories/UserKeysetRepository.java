@@ -0,0 +1,8 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.util.List;
+
+public interface UserKeysetRepository {
+
+    List<Long> findIdsAfter(Keyset keyset, int limit);
+}
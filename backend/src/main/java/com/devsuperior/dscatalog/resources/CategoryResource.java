@@ -1,10 +1,13 @@
 package com.devsuperior.dscatalog.resources;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.SliceDTO;
 import com.devsuperior.dscatalog.services.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -25,18 +29,42 @@ public class CategoryResource {
     @Autowired
     private CategoryService categoryService;
 
+    @Value("${catalog.http.cache-control.category-list}")
+    private String listCacheControl;
+
+    @Value("${catalog.http.cache-control.category}")
+    private String itemCacheControl;
+
     @GetMapping
     public ResponseEntity<Page<CategoryDTO>> findAll(Pageable pageable) {
         Page<CategoryDTO> findAllPaged = this.categoryService.findAllPaged(pageable);
 
-        return ResponseEntity.ok().body(findAllPaged);
+        return ResponseEntity.ok()
+                .eTag(Validators.etag(findAllPaged, CategoryDTO::getId, CategoryDTO::getLastModified))
+                .header(HttpHeaders.CACHE_CONTROL, listCacheControl)
+                .body(findAllPaged);
+    }
+
+    @GetMapping(params = "slice=true")
+    public ResponseEntity<SliceDTO<CategoryDTO>> findAllSliced(
+            @RequestParam(value = "approximateCount", defaultValue = "false") boolean approximateCount,
+            Pageable pageable) {
+        SliceDTO<CategoryDTO> findAllSliced = this.categoryService.findAllSliced(pageable, approximateCount);
+
+        return ResponseEntity.ok().body(findAllSliced);
     }
 
     @GetMapping(value = "/{id}")
     public ResponseEntity<CategoryDTO> findById(
             @PathVariable Long id) {
         CategoryDTO categoryDto = this.categoryService.findById(id);
-        return ResponseEntity.ok().body(categoryDto);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(Validators.etag(categoryDto.getId(), categoryDto.getLastModified()))
+                .header(HttpHeaders.CACHE_CONTROL, itemCacheControl);
+        if (categoryDto.getLastModified() != null) {
+            response.lastModified(categoryDto.getLastModified());
+        }
+        return response.body(categoryDto);
     }
 
     @PostMapping
@@ -0,0 +1,33 @@
+package com.devsuperior.dscatalog.resources;
+
+import com.devsuperior.dscatalog.components.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Public keys for validating nodes (RFC 7517). Empty while tokens are signed with the
+ * shared secret.
+ */
+@RestController
+public class JwksResource {
+
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
+    @Value("${catalog.http.cache-control.jwks}")
+    private String cacheControl;
+
+    @GetMapping(value = "/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .body(Map.of("keys", jwtKeyRing.jwks()));
+    }
+}
@@ -1,10 +1,24 @@
 package com.devsuperior.dscatalog.resources;
 
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.ImportReportDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.dto.SliceDTO;
+import com.devsuperior.dscatalog.repositories.ProductFilter;
+import com.devsuperior.dscatalog.services.ProductExportService;
+import com.devsuperior.dscatalog.services.ProductImportService;
 import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.exceptions.InvalidFilterException;
+import com.devsuperior.dscatalog.services.exceptions.PreconditionFailedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,13 +26,21 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 @RestController
 @RequestMapping(value = "/products")
@@ -27,21 +49,160 @@ public class ProductResource {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Value("${catalog.export.timeout}")
+    private Duration exportTimeout;
+
+    @Value("${catalog.http.cache-control.product-list}")
+    private String listCacheControl;
+
+    @Value("${catalog.http.cache-control.product}")
+    private String itemCacheControl;
+
     @GetMapping
     public ResponseEntity<Page<ProductDTO>> findAll(
             @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+            @RequestParam(value = "categoryIds", required = false) List<Long> categoryIds,
+            @RequestParam(value = "categoryMatch", defaultValue = "any") String categoryMatch,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "dateFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFrom,
+            @RequestParam(value = "dateTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateTo,
+            @RequestParam(value="name", defaultValue = "") String name,
+            Pageable pageable) {
+        ProductFilter filter = filter(categoryId, categoryIds, categoryMatch, minPrice, maxPrice, dateFrom, dateTo);
+        Page<ProductDTO> findAllPaged = this.productService.findAllPaged(filter, name.trim(), pageable);
+
+        return ResponseEntity.ok()
+                .eTag(Validators.etag(findAllPaged, ProductDTO::getId, ProductDTO::getLastModified))
+                .header(HttpHeaders.CACHE_CONTROL, listCacheControl)
+                .body(findAllPaged);
+    }
+
+    @GetMapping(params = {"view=summary", "!slice", "!after"})
+    public ResponseEntity<Page<ProductSummaryDTO>> findAllSummaries(
+            @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+            @RequestParam(value = "categoryIds", required = false) List<Long> categoryIds,
+            @RequestParam(value = "categoryMatch", defaultValue = "any") String categoryMatch,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "dateFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFrom,
+            @RequestParam(value = "dateTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateTo,
             @RequestParam(value="name", defaultValue = "") String name,
             Pageable pageable) {
-        Page<ProductDTO> findAllPaged = this.productService.findAllPaged(categoryId, name.trim(), pageable);
+        ProductFilter filter = filter(categoryId, categoryIds, categoryMatch, minPrice, maxPrice, dateFrom, dateTo);
+        Page<ProductSummaryDTO> findAllSummaries = this.productService.findAllSummaries(filter, name.trim(), pageable);
+
+        return ResponseEntity.ok()
+                .eTag(Validators.etag(findAllSummaries, ProductSummaryDTO::getId, ProductSummaryDTO::getLastModified))
+                .header(HttpHeaders.CACHE_CONTROL, listCacheControl)
+                .body(findAllSummaries);
+    }
 
-        return ResponseEntity.ok().body(findAllPaged);
+    // categoryIds takes over from the single categoryId when both are given; categoryMatch=all
+    // asks for products linked to every listed category instead of any of them
+    private static ProductFilter filter(Long categoryId, List<Long> categoryIds, String categoryMatch,
+                                        Double minPrice, Double maxPrice, Instant dateFrom, Instant dateTo) {
+        String match = categoryMatch.trim();
+        if (!"any".equalsIgnoreCase(match) && !"all".equalsIgnoreCase(match)) {
+            throw new InvalidFilterException("categoryMatch must be any or all");
+        }
+        List<Long> categories = categoryIds != null && !categoryIds.isEmpty()
+                ? categoryIds
+                : categoryId == 0 ? List.of() : List.of(categoryId);
+        return new ProductFilter(categories, "all".equalsIgnoreCase(match), minPrice, maxPrice, dateFrom, dateTo);
+    }
+
+    @GetMapping(params = {"slice=true", "!after"})
+    public ResponseEntity<SliceDTO<ProductDTO>> findAllSliced(
+            @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+            @RequestParam(value = "categoryIds", required = false) List<Long> categoryIds,
+            @RequestParam(value = "categoryMatch", defaultValue = "any") String categoryMatch,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "dateFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFrom,
+            @RequestParam(value = "dateTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateTo,
+            @RequestParam(value="name", defaultValue = "") String name,
+            @RequestParam(value = "approximateCount", defaultValue = "false") boolean approximateCount,
+            Pageable pageable) {
+        ProductFilter filter = filter(categoryId, categoryIds, categoryMatch, minPrice, maxPrice, dateFrom, dateTo);
+        SliceDTO<ProductDTO> findAllSliced = this.productService.findAllSliced(filter, name.trim(), pageable, approximateCount);
+
+        return ResponseEntity.ok().body(findAllSliced);
+    }
+
+    // A cursor walks a stable sort order, which a relevance ranking is not, so name is refused
+    // here rather than ignored
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDTO<ProductDTO>> findAllByCursor(
+            @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+            @RequestParam(value = "categoryIds", required = false) List<Long> categoryIds,
+            @RequestParam(value = "categoryMatch", defaultValue = "any") String categoryMatch,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "dateFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFrom,
+            @RequestParam(value = "dateTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateTo,
+            @RequestParam(value="name", defaultValue = "") String name,
+            @RequestParam(value = "after") String after,
+            Pageable pageable) {
+        if (!name.isBlank()) {
+            throw new InvalidFilterException("name cannot be combined with after");
+        }
+        ProductFilter filter = filter(categoryId, categoryIds, categoryMatch, minPrice, maxPrice, dateFrom, dateTo);
+        CursorPageDTO<ProductDTO> findAllByCursor = this.productService.findAllByCursor(filter, after.trim(), pageable);
+
+        return ResponseEntity.ok().body(findAllByCursor);
+    }
+
+    @GetMapping(value = "/facets")
+    public ResponseEntity<List<CategoryFacetDTO>> findFacets(
+            @RequestParam(value="name", defaultValue = "") String name) {
+        List<CategoryFacetDTO> facets = this.productService.findFacets(name.trim());
+        return ResponseEntity.ok().body(facets);
+    }
+
+    // Streams from the request's own async task, so only exports get the long timeout
+    @GetMapping(value = "/export")
+    public WebAsyncTask<Void> exportNdjson(
+            @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+            @RequestParam(value = "updatedSince", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince,
+            HttpServletResponse response) {
+        response.setContentType("application/x-ndjson");
+        return new WebAsyncTask<>(this.exportTimeout.toMillis(), () -> {
+            this.productExportService.exportNdjson(categoryId, updatedSince, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @GetMapping(value = "/export", produces = "text/csv")
+    public WebAsyncTask<Void> exportCsv(
+            @RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+            @RequestParam(value = "updatedSince", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince,
+            HttpServletResponse response) {
+        response.setContentType("text/csv");
+        return new WebAsyncTask<>(this.exportTimeout.toMillis(), () -> {
+            this.productExportService.exportCsv(categoryId, updatedSince, response.getOutputStream());
+            return null;
+        });
     }
 
     @GetMapping(value = "/{id}")
     public ResponseEntity<ProductDTO> findById(
             @PathVariable Long id) {
         ProductDTO productDto = this.productService.findById(id);
-        return ResponseEntity.ok().body(productDto);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(Validators.etag(productDto.getId(), productDto.getVersion(), productDto.getLastModified()))
+                .header(HttpHeaders.CACHE_CONTROL, itemCacheControl);
+        if (productDto.getLastModified() != null) {
+            response.lastModified(productDto.getLastModified());
+        }
+        // A matching If-None-Match or If-Modified-Since turns this into a 304 before the body is written
+        return response.body(productDto);
     }
 
     @PostMapping
@@ -53,12 +214,36 @@ public class ProductResource {
         return ResponseEntity.created(uri).body(newProductDto);
     }
 
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportReportDTO> importNdjson(
+            InputStream body) throws IOException {
+        ImportReportDTO report = this.productImportService.importNdjson(body);
+        return ResponseEntity.ok().body(report);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReportDTO> importCsv(
+            InputStream body) throws IOException {
+        ImportReportDTO report = this.productImportService.importCsv(body);
+        return ResponseEntity.ok().body(report);
+    }
+
     @PutMapping(value = "/{id}")
     public ResponseEntity<ProductDTO> updateProduct(
             @PathVariable Long id,
-            @Valid @RequestBody ProductDTO productUpdate){
-        ProductDTO updatedProduct = this.productService.updateProduct(id, productUpdate);
-        return ResponseEntity.ok().body(updatedProduct);
+            @Valid @RequestBody ProductDTO productUpdate,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Long expectedVersion = null;
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            expectedVersion = Validators.version(ifMatch);
+            if (expectedVersion == null) {
+                throw new PreconditionFailedException("If-Match não corresponde a uma versão do produto");
+            }
+        }
+        ProductDTO updatedProduct = this.productService.updateProduct(id, productUpdate, expectedVersion);
+        return ResponseEntity.ok()
+                .eTag(Validators.etag(updatedProduct.getId(), updatedProduct.getVersion(), updatedProduct.getLastModified()))
+                .body(updatedProduct);
     }
 
     @DeleteMapping(value = "/{id}")
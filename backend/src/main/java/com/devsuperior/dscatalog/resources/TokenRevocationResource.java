@@ -0,0 +1,24 @@
+package com.devsuperior.dscatalog.resources;
+
+import com.devsuperior.dscatalog.services.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class TokenRevocationResource {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @PostMapping(value = "/oauth/revoke")
+    public ResponseEntity<Void> revoke(
+            @RequestParam(value = "token", required = false) String token,
+            Authentication authentication) {
+        this.tokenRevocationService.revoke(token, authentication);
+        return ResponseEntity.ok().build();
+    }
+}
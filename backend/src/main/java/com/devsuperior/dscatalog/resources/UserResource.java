@@ -1,5 +1,6 @@
 package com.devsuperior.dscatalog.resources;
 
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
 import com.devsuperior.dscatalog.dto.UserUpdateDTO;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -34,6 +36,14 @@ public class UserResource {
         return ResponseEntity.ok().body(findAllPaged);
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDTO<UserDTO>> findAllByCursor(
+            @RequestParam(value = "after") String after,
+            Pageable pageable) {
+        CursorPageDTO<UserDTO> findAllByCursor = this.userService.findAllByCursor(after.trim(), pageable);
+        return ResponseEntity.ok().body(findAllByCursor);
+    }
+
     @GetMapping(value = "/{id}")
     public ResponseEntity<UserDTO> findById(
             @PathVariable Long id) {
@@ -0,0 +1,79 @@
+package com.devsuperior.dscatalog.resources;
+
+import org.springframework.data.domain.Page;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Strong ETags built from what a response is made of (ids and last-modified instants)
+ * rather than from its bytes, so a matching If-None-Match is answered before anything is
+ * serialized.
+ */
+final class Validators {
+
+    private Validators() {
+    }
+
+    /**
+     * For an entity with an optimistic-lock version: the version leads the tag so that
+     * {@link #version} can read it back from If-Match.
+     */
+    static String etag(Long id, Long version, Instant lastModified) {
+        StringBuilder key = new StringBuilder();
+        append(key, id, lastModified);
+        return "\"" + version + "." + digest(key).substring(1);
+    }
+
+    /**
+     * The version named by a strong If-Match tag, or null when the tag names none. Weak
+     * tags never match under If-Match.
+     */
+    static Long version(String ifMatch) {
+        String tag = ifMatch.trim();
+        int dot = tag.indexOf('.');
+        if (!tag.startsWith("\"") || dot < 0) {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(1, dot));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static String etag(Long id, Instant lastModified) {
+        StringBuilder key = new StringBuilder();
+        append(key, id, lastModified);
+        return digest(key);
+    }
+
+    /**
+     * Covers the position of the page and its total as well as its items, since an insert
+     * elsewhere in the catalog shifts every later page.
+     */
+    static <T> String etag(Page<T> page, Function<T, Long> id, Function<T, Instant> lastModified) {
+        StringBuilder key = new StringBuilder()
+                .append(page.getNumber()).append('/')
+                .append(page.getSize()).append('/')
+                .append(page.getTotalElements()).append('|');
+        for (T item : page.getContent()) {
+            append(key, id.apply(item), lastModified.apply(item));
+        }
+        return digest(key);
+    }
+
+    private static void append(StringBuilder key, Long id, Instant lastModified) {
+        key.append(id).append('@');
+        if (lastModified != null) {
+            key.append(lastModified.getEpochSecond()).append('.').append(lastModified.getNano());
+        }
+        key.append(';');
+    }
+
+    private static String digest(StringBuilder key) {
+        return '"' + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+}
@@ -0,0 +1,42 @@
+package com.devsuperior.dscatalog.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the result of count queries for a while, for listings that only show
+ * "about N results". Keys carry client-chosen filter bounds, so the cache is capped in
+ * size as well as in time; an expired or evicted key is recounted by its next caller.
+ */
+@Component
+public class ApproximateCounter {
+
+    private final Cache<String, Long> counts;
+
+    public ApproximateCounter(
+            @Value("${catalog.listing.approximate-count-max-size}") long maxSize,
+            @Value("${catalog.listing.approximate-count-ttl}") Duration timeToLive) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    @Autowired
+    public void registerMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, counts, "approximate-count");
+    }
+
+    public long count(String key, Supplier<Long> exactCount) {
+        return counts.get(key, k -> exactCount.get());
+    }
+}
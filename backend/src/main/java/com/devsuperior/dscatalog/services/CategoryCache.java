@@ -0,0 +1,158 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of every category, read without locks. Category writes bump the
+ * generation and load a new snapshot once they commit; a snapshot built from an older
+ * generation is never served again, so a load racing with a write cannot resurrect
+ * stale names.
+ * <p>
+ * Names sort with a Portuguese {@link Collator}, as the pt_BR database collation does:
+ * case and accents only break ties, so "abacate", "Árvore" and "Banana" come in that order
+ * rather than in the code point order of {@code String.compareTo}.
+ */
+@Component
+public class CategoryCache {
+    private static final Locale NAME_LOCALE = Locale.forLanguageTag("pt-BR");
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("catalog.category.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("catalog.category.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+    }
+
+    public Optional<CategoryDTO> findById(Long id) {
+        CategoryDTO category = current().byId.get(id);
+        return category == null ? Optional.empty() : Optional.of(copy(category));
+    }
+
+    /**
+     * Pages through the snapshot when the requested order can be reproduced in memory,
+     * otherwise returns empty so the caller asks the database.
+     */
+    public Optional<Page<CategoryDTO>> findAll(Pageable pageRequest) {
+        Comparator<CategoryDTO> comparator = comparatorFor(pageRequest.getSort());
+        if (comparator == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        List<CategoryDTO> sorted = current().ordered.stream().sorted(comparator).collect(Collectors.toList());
+        if (pageRequest.isUnpaged()) {
+            return Optional.of(new PageImpl<>(sorted.stream().map(CategoryCache::copy).collect(Collectors.toList())));
+        }
+        int start = (int) Math.min(pageRequest.getOffset(), sorted.size());
+        int end = Math.min(start + pageRequest.getPageSize(), sorted.size());
+        List<CategoryDTO> content = sorted.subList(start, end).stream()
+                .map(CategoryCache::copy)
+                .collect(Collectors.toList());
+        return Optional.of(new PageImpl<>(content, pageRequest, sorted.size()));
+    }
+
+    public void refreshAfterCommit() {
+        AfterCommit.run(() -> {
+            generation.incrementAndGet();
+            current();
+        });
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private Snapshot current() {
+        Snapshot cached = snapshot.get();
+        long expected = generation.get();
+        if (cached != null && cached.generation == expected) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        List<CategoryDTO> categories = categoryRepository.findAll(Sort.by("id")).stream()
+                .map(CategoryDTO::new)
+                .collect(Collectors.toList());
+        Snapshot loaded = new Snapshot(expected, categories);
+        snapshot.accumulateAndGet(loaded, (previous, next) ->
+                previous == null || previous.generation <= next.generation ? next : previous);
+        return loaded;
+    }
+
+    private static Comparator<CategoryDTO> comparatorFor(Sort sort) {
+        Comparator<CategoryDTO> comparator = Comparator.comparing(CategoryDTO::getId);
+        if (sort.isUnsorted()) {
+            return comparator;
+        }
+
+        Comparator<CategoryDTO> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<CategoryDTO> next;
+            if ("id".equals(order.getProperty())) {
+                next = comparator;
+            } else if ("name".equals(order.getProperty())) {
+                // Collators are not thread-safe to share, so each listing gets its own
+                Collator collator = Collator.getInstance(NAME_LOCALE);
+                next = Comparator.comparing(CategoryDTO::getName, Comparator.nullsFirst(collator::compare));
+            } else {
+                return null;
+            }
+            next = order.isAscending() ? next : next.reversed();
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+
+    private static CategoryDTO copy(CategoryDTO category) {
+        CategoryDTO copy = new CategoryDTO(category.getId(), category.getName());
+        copy.setLastModified(category.getLastModified());
+        return copy;
+    }
+
+    private static final class Snapshot {
+        private final long generation;
+        private final List<CategoryDTO> ordered;
+        private final Map<Long, CategoryDTO> byId;
+
+        private Snapshot(long generation, List<CategoryDTO> ordered) {
+            this.generation = generation;
+            this.ordered = List.copyOf(ordered);
+            this.byId = ordered.stream().collect(Collectors.toUnmodifiableMap(CategoryDTO::getId, Function.identity()));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.repositories.CategoryCount;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Products per category, counted once and then adjusted in memory as product writes
+ * commit. Writes this instance does not see (other instances, or a delta racing with a
+ * recount) are absorbed by a full recount every refresh interval; bulk loads that know
+ * they changed a lot ask for one with {@link #recountAfterCommit()}.
+ */
+@Component
+public class CategoryProductCounts {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${catalog.facets.refresh-interval}")
+    private Duration refreshInterval;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Count per category id. Categories without products are absent.
+     */
+    public Map<Long, Long> counts() {
+        Snapshot current = current();
+        Map<Long, Long> counts = new HashMap<>();
+        current.counts.forEach((categoryId, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                counts.put(categoryId, value);
+            }
+        });
+        return counts;
+    }
+
+    public void adjustAfterCommit(Collection<Long> removedFrom, Collection<Long> addedTo) {
+        if (removedFrom.isEmpty() && addedTo.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            Snapshot current = snapshot;
+            // Nothing loaded yet: the first recount will include this write
+            if (current == null) {
+                return;
+            }
+            removedFrom.forEach(categoryId -> current.counter(categoryId).decrement());
+            addedTo.forEach(categoryId -> current.counter(categoryId).increment());
+        });
+    }
+
+    public void recountAfterCommit() {
+        AfterCommit.run(generation::incrementAndGet);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation == generation.get()
+                && System.nanoTime() - current.countedAt < refreshInterval.toNanos()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long expected = generation.get();
+            if (current == null || current.generation != expected
+                    || System.nanoTime() - current.countedAt >= refreshInterval.toNanos()) {
+                current = new Snapshot(expected);
+                for (CategoryCount count : productRepository.countByCategory()) {
+                    current.counter(count.getCategoryId()).add(count.getCount());
+                }
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private static final class Snapshot {
+        private final long generation;
+        private final long countedAt = System.nanoTime();
+        private final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+
+        private Snapshot(long generation) {
+            this.generation = generation;
+        }
+
+        private LongAdder counter(Long categoryId) {
+            return counts.computeIfAbsent(categoryId, id -> new LongAdder());
+        }
+    }
+}
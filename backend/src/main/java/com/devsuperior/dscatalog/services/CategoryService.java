@@ -1,7 +1,9 @@
 package com.devsuperior.dscatalog.services;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.SliceDTO;
 import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.instrumentation.QueryBudget;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
@@ -10,6 +12,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,17 +25,37 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
-    @Transactional(readOnly = true)
+    @Autowired
+    private ApproximateCounter approximateCounter;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @QueryBudget(2)
     public Page<CategoryDTO> findAllPaged(Pageable pageRequest) {
+        Optional<Page<CategoryDTO>> cached = this.categoryCache.findAll(pageRequest);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         Page<Category> pagedList = this.categoryRepository.findAll(pageRequest);
         return pagedList.map(CategoryDTO::new);
     }
 
-    @Transactional(readOnly = true)
+    @QueryBudget(2)
+    public SliceDTO<CategoryDTO> findAllSliced(Pageable pageRequest, boolean approximateCount) {
+        Optional<Page<CategoryDTO>> cached = this.categoryCache.findAll(pageRequest);
+        if (cached.isPresent()) {
+            return new SliceDTO<>(cached.get(), approximateCount ? cached.get().getTotalElements() : null);
+        }
+        Slice<Category> slicedList = this.categoryRepository.findAllBy(pageRequest);
+        Long total = approximateCount ? this.approximateCounter.count("categories", this.categoryRepository::count) : null;
+        return new SliceDTO<>(slicedList.map(CategoryDTO::new), total);
+    }
+
+    @QueryBudget(1)
     public CategoryDTO findById(Long id) {
-        Optional<Category> obj = this.categoryRepository.findById(id);
-        Category category = obj.orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
-        return new CategoryDTO(category);
+        return this.categoryCache.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
     }
 
     @Transactional
@@ -40,6 +63,7 @@ public class CategoryService {
         Category newCategoryEntity = new Category();
         newCategoryEntity.setName(newCategory.getName());
         newCategoryEntity = this.categoryRepository.save(newCategoryEntity);
+        this.categoryCache.refreshAfterCommit();
         return new CategoryDTO(newCategoryEntity);
     }
 
@@ -51,6 +75,7 @@ public class CategoryService {
             Category categoryEntity = this.categoryRepository.getReferenceById(id);
             categoryEntity.setName(newCategory.getName());
             categoryEntity = this.categoryRepository.save(categoryEntity);
+            this.categoryCache.refreshAfterCommit();
             return new CategoryDTO(categoryEntity);
         } catch (EntityNotFoundException e){
             throw new ResourceNotFoundException("Id not found: " + id);
@@ -61,6 +86,7 @@ public class CategoryService {
             Long id){
         try{
             this.categoryRepository.deleteById(id);
+            this.categoryCache.refreshAfterCommit();
         } catch(EmptyResultDataAccessException e){
             throw new ResourceNotFoundException("Id not found: " + id);
         } catch(DataIntegrityViolationException e){
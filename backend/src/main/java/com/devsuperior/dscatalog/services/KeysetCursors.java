@@ -0,0 +1,59 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.repositories.Keyset;
+import com.devsuperior.dscatalog.services.exceptions.InvalidCursorException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Encodes a {@link Keyset} as the opaque {@code after} token handed to clients. The token
+ * carries the sort of the listing, so only the first request needs a {@code sort} parameter;
+ * a later request may repeat it, but a cursor sent with a different sort is rejected.
+ */
+final class KeysetCursors {
+    private static final String SEPARATOR = "\n";
+
+    private KeysetCursors() {
+    }
+
+    static Keyset decode(String after, Sort sort, Set<String> sortableProperties) {
+        if (after.isEmpty()) {
+            Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+            if (!sortableProperties.contains(order.getProperty())) {
+                throw new InvalidCursorException("Cursor pagination cannot sort by " + order.getProperty());
+            }
+            return Keyset.first(order.getProperty(), order.getDirection());
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+            if (parts.length != 4 || !sortableProperties.contains(parts[0])) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            Keyset keyset = Keyset.after(parts[0], Sort.Direction.fromString(parts[1]), parts[3], Long.valueOf(parts[2]));
+            Sort.Order order = sort.stream().findFirst().orElse(null);
+            if (order != null && (!order.getProperty().equals(keyset.getProperty())
+                    || order.getDirection() != keyset.getDirection())) {
+                throw new InvalidCursorException("Cursor was issued for a different sort");
+            }
+            return keyset;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    static String encode(Keyset keyset) {
+        String raw = keyset.getProperty() + SEPARATOR + keyset.getDirection() + SEPARATOR
+                + keyset.getId() + SEPARATOR + keyset.getValue();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String next(Keyset keyset, Object last, Long lastId) {
+        Object value = PropertyAccessorFactory.forBeanPropertyAccess(last).getPropertyValue(keyset.getProperty());
+        return encode(keyset.next(value, lastId));
+    }
+}
@@ -0,0 +1,57 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.entities.User;
+import com.devsuperior.dscatalog.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Users with their roles, keyed by email, shared by the password grant and the token
+ * enhancer so a login reads the user once. Entries expire after a fixed time; user
+ * writes evict them both immediately and once they commit, so a load racing with the
+ * write cannot keep the old roles cached.
+ */
+@Component
+public class PrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Cache<String, User> cache;
+
+    public PrincipalCache(
+            @Value("${catalog.security.principal-cache.max-size}") long maxSize,
+            @Value("${catalog.security.principal-cache.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Autowired
+    public void registerMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "principal");
+    }
+
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(cache.get(email, userRepository::findByEmail));
+    }
+
+    public void evictAfterCommit(Long userId) {
+        evict(userId);
+        AfterCommit.run(() -> evict(userId));
+    }
+
+    private void evict(Long userId) {
+        cache.asMap().values().removeIf(user -> user.getId().equals(userId));
+    }
+}
@@ -0,0 +1,119 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductExportDTO;
+import com.devsuperior.dscatalog.repositories.ProductExportRow;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalog straight from a database cursor. Rows are grouped into products as
+ * they arrive, so only the product being written is held in memory.
+ */
+@Service
+public class ProductExportService {
+    private static final String CSV_HEADER = "id,name,description,price,imgUrl,date,updatedAt,categories";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.export.fetch-size}")
+    private int fetchSize;
+
+    /**
+     * One JSON product per line, shaped like GET /products/{id} without the version and
+     * with updatedAt.
+     */
+    @Transactional(readOnly = true)
+    public void exportNdjson(Long categoryId, Instant updatedSince, OutputStream out) throws IOException {
+        ObjectWriter productWriter = objectMapper.writerFor(ProductExportDTO.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        export(categoryId, updatedSince, product -> {
+            writer.write(productWriter.writeValueAsString(product));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+
+    /**
+     * The columns POST /products/import reads, plus id and updatedAt.
+     */
+    @Transactional(readOnly = true)
+    public void exportCsv(Long categoryId, Instant updatedSince, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        export(categoryId, updatedSince, product -> {
+            writer.write(String.join(",",
+                    String.valueOf(product.getId()),
+                    csvField(product.getName()),
+                    csvField(product.getDescription()),
+                    product.getPrice() == null ? "" : String.valueOf(product.getPrice()),
+                    csvField(product.getImgUrl()),
+                    product.getDate() == null ? "" : product.getDate().toString(),
+                    product.getUpdatedAt() == null ? "" : product.getUpdatedAt().toString(),
+                    product.getCategories().stream()
+                            .map(category -> String.valueOf(category.getId()))
+                            .collect(Collectors.joining("|"))));
+            writer.write("\r\n");
+        });
+        writer.flush();
+    }
+
+    private void export(Long categoryId, Instant updatedSince, ProductSink sink) throws IOException {
+        Long category = categoryId == 0 ? null : categoryId;
+        try (Stream<ProductExportRow> rows = productRepository.streamForExport(category, updatedSince, fetchSize)) {
+            Iterator<ProductExportRow> iterator = rows.iterator();
+            ProductExportDTO current = null;
+            while (iterator.hasNext()) {
+                ProductExportRow row = iterator.next();
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        sink.accept(current);
+                    }
+                    current = new ProductExportDTO(row.getId(), row.getName(), row.getDescription(), row.getPrice(),
+                            row.getImgUrl(), row.getDate(), row.getUpdatedAt());
+                }
+                if (row.getCategoryId() != null) {
+                    current.getCategories().add(new CategoryDTO(row.getCategoryId(), row.getCategoryName()));
+                }
+            }
+            if (current != null) {
+                sink.accept(current);
+            }
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private interface ProductSink {
+        void accept(ProductExportDTO product) throws IOException;
+    }
+}
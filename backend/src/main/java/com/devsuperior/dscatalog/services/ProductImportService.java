@@ -0,0 +1,338 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ImportErrorDTO;
+import com.devsuperior.dscatalog.dto.ImportReportDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.services.search.ProductSearchIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams product records from the request body and writes them in JDBC batches, so the
+ * heap holds one batch at a time however large the upload is. Each batch commits on its
+ * own: a failed batch is retried record by record, so only the records the database
+ * actually refuses are reported and the import carries on.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO tb_product (name, description, price, img_url, date, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_PRODUCT_CATEGORY =
+            "INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private CategoryProductCounts categoryCounts;
+
+    @Value("${catalog.import.batch-size}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-reported-errors}")
+    private int maxReportedErrors;
+
+    /**
+     * One JSON product per line, in the same shape POST /products accepts.
+     */
+    public ImportReportDTO importNdjson(InputStream body) throws IOException {
+        Importer importer = new Importer();
+        ObjectReader productReader = objectMapper.readerFor(ProductDTO.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        long record = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportErrorDTO error = new ImportErrorDTO(++record);
+            ProductDTO dto = null;
+            try {
+                dto = productReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                error.addError("record", "Invalid JSON: " + e.getOriginalMessage());
+            }
+            importer.accept(dto, error);
+        }
+        return importer.finish();
+    }
+
+    /**
+     * A header row naming the columns (name, description, price, imgUrl, date, categories)
+     * followed by one product per record. Categories are ids separated by '|'.
+     */
+    public ImportReportDTO importCsv(InputStream body) throws IOException {
+        Importer importer = new Importer();
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+
+        long record = 0;
+        try {
+            List<String> header = reader.next();
+            if (header == null) {
+                return importer.finish();
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                ImportErrorDTO error = new ImportErrorDTO(++record);
+                importer.accept(fromCsv(columns, fields, error), error);
+            }
+        } catch (CsvRecordReader.MalformedCsvException e) {
+            ImportErrorDTO error = new ImportErrorDTO(++record);
+            error.addError("record", e.getMessage());
+            importer.accept(null, error);
+        }
+        return importer.finish();
+    }
+
+    private static ProductDTO fromCsv(Map<String, Integer> columns, List<String> fields, ImportErrorDTO error) {
+        ProductDTO dto = new ProductDTO();
+        dto.setName(column(columns, fields, "name"));
+        dto.setDescription(column(columns, fields, "description"));
+        dto.setImgUrl(column(columns, fields, "imgurl"));
+
+        String price = column(columns, fields, "price");
+        if (price != null) {
+            try {
+                dto.setPrice(Double.valueOf(price));
+            } catch (NumberFormatException e) {
+                error.addError("price", "Invalid number: " + price);
+            }
+        }
+
+        String date = column(columns, fields, "date");
+        if (date != null) {
+            try {
+                dto.setDate(Instant.parse(date));
+            } catch (DateTimeParseException e) {
+                error.addError("date", "Invalid ISO-8601 instant: " + date);
+            }
+        }
+
+        String categories = column(columns, fields, "categories");
+        if (categories != null) {
+            for (String id : categories.split("\\|")) {
+                try {
+                    dto.getCategories().add(new CategoryDTO(Long.valueOf(id.trim()), null));
+                } catch (NumberFormatException e) {
+                    error.addError("categories", "Invalid category id: " + id);
+                }
+            }
+        }
+        return dto;
+    }
+
+    private static String column(Map<String, Integer> columns, List<String> fields, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private List<Long> insert(List<ProductDTO> products) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            // IDENTITY keys rule out Hibernate insert batching; plain JDBC can still batch
+            // and hand the generated keys back
+            Timestamp now = Timestamp.from(Instant.now());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS)) {
+                for (ProductDTO dto : products) {
+                    statement.setString(1, dto.getName());
+                    statement.setString(2, dto.getDescription());
+                    statement.setObject(3, dto.getPrice(), Types.DOUBLE);
+                    statement.setString(4, dto.getImgUrl());
+                    if (dto.getDate() == null) {
+                        statement.setNull(5, Types.TIMESTAMP);
+                    } else {
+                        statement.setTimestamp(5, Timestamp.from(dto.getDate()));
+                    }
+                    statement.setTimestamp(6, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> keys = new ArrayList<>(products.size());
+                try (ResultSet generated = statement.getGeneratedKeys()) {
+                    while (generated.next()) {
+                        keys.add(generated.getLong("id"));
+                    }
+                }
+                if (keys.size() != products.size()) {
+                    throw new SQLException("Expected " + products.size() + " generated keys, got " + keys.size());
+                }
+                return keys;
+            }
+        });
+
+        List<Object[]> links = new ArrayList<>();
+        List<Product> indexed = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            ProductDTO dto = products.get(i);
+            for (CategoryDTO category : dto.getCategories()) {
+                links.add(new Object[]{ids.get(i), category.getId()});
+            }
+            indexed.add(new Product(ids.get(i), dto.getName(), dto.getDescription(),
+                    dto.getPrice(), dto.getImgUrl(), dto.getDate()));
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_CATEGORY, links);
+        AfterCommit.run(() -> indexed.forEach(searchIndex::index));
+        categoryCounts.adjustAfterCommit(List.of(), links.stream().map(link -> (Long) link[1]).collect(Collectors.toList()));
+        return ids;
+    }
+
+    private final class Importer {
+        private final ImportReportDTO report = new ImportReportDTO();
+        private final List<ProductDTO> pending = new ArrayList<>(batchSize);
+        private final List<Long> pendingRecords = new ArrayList<>(batchSize);
+
+        private void accept(ProductDTO dto, ImportErrorDTO error) {
+            report.addReceived();
+            if (dto != null) {
+                for (ConstraintViolation<ProductDTO> violation : validator.validate(dto)) {
+                    error.addError(violation.getPropertyPath().toString(), violation.getMessage());
+                }
+                if (dto.getCategories() == null) {
+                    dto.setCategories(new ArrayList<>());
+                }
+                // A repeated id would collide on the product_category key and fail the whole batch
+                Set<Long> categoryIds = new LinkedHashSet<>();
+                dto.getCategories().removeIf(category -> category != null && category.getId() != null
+                        && !categoryIds.add(category.getId()));
+                for (CategoryDTO category : dto.getCategories()) {
+                    if (category == null || category.getId() == null || categoryCache.findById(category.getId()).isEmpty()) {
+                        error.addError("categories", "Categoria não encontrada");
+                    }
+                }
+            }
+
+            if (dto == null || !error.getErrors().isEmpty()) {
+                report.reject(error, maxReportedErrors);
+                return;
+            }
+            pending.add(dto);
+            pendingRecords.add(error.getRecord());
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private ImportReportDTO finish() {
+            if (!pending.isEmpty()) {
+                flush();
+            }
+            return report;
+        }
+
+        private void flush() {
+            int imported = 0;
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(pending));
+                imported = pending.size();
+            } catch (DataAccessException e) {
+                if (pending.size() == 1) {
+                    logger.warn("Product import record " + pendingRecords.get(0) + " failed", e);
+                    rejectIntegrityViolation(pendingRecords.get(0));
+                } else {
+                    logger.warn("Product import batch of " + pending.size() + " records failed, retrying them one by one", e);
+                    imported = retryOneByOne();
+                }
+            }
+            report.addImported(imported);
+            if (imported > 0) {
+                // The inserts bypass Hibernate, so cached listing and count queries would
+                // otherwise keep answering without the new rows
+                AfterCommit.run(() -> entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion());
+            }
+            pending.clear();
+            pendingRecords.clear();
+        }
+
+        private int retryOneByOne() {
+            int imported = 0;
+            for (int i = 0; i < pending.size(); i++) {
+                List<ProductDTO> single = List.of(pending.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(single));
+                    imported++;
+                } catch (DataAccessException e) {
+                    logger.warn("Product import record " + pendingRecords.get(i) + " failed", e);
+                    rejectIntegrityViolation(pendingRecords.get(i));
+                }
+            }
+            return imported;
+        }
+
+        private void rejectIntegrityViolation(Long record) {
+            ImportErrorDTO error = new ImportErrorDTO(record);
+            error.addError("record", "Integrity violation");
+            report.reject(error, maxReportedErrors);
+        }
+    }
+}
@@ -1,46 +1,290 @@
 package com.devsuperior.dscatalog.services;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.dto.SliceDTO;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.instrumentation.QueryBudget;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.Keyset;
+import com.devsuperior.dscatalog.repositories.ProductFilter;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.repositories.ProductSpecifications;
+import com.devsuperior.dscatalog.repositories.ProductSummaryRow;
+import com.devsuperior.dscatalog.services.exceptions.ConflictException;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
+import com.devsuperior.dscatalog.services.exceptions.PreconditionFailedException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.search.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityNotFoundException;
-import java.util.Arrays;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
+    private static final Set<String> KEYSET_PROPERTIES = Set.of("id", "name");
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ApproximateCounter approximateCounter;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private CategoryProductCounts categoryCounts;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${catalog.search.max-results}")
+    private int searchMaxResults;
+
     @Transactional(readOnly = true)
+    @QueryBudget(3)
     public Page<ProductDTO> findAllPaged(
             Long categoryId,
             String name,
             Pageable pageRequest) {
-        List<Category> categories = categoryId == 0 ? null : List.of(categoryRepository.getReferenceById(categoryId));
-        Page<Product> pagedList = this.productRepository.find(categories, name, pageRequest);
-        productRepository.findProductsWithCategories(pagedList.getContent());
-        return pagedList.map(item -> new ProductDTO(item, item.getCategories()));
+        return this.findAllPaged(ProductFilter.ofCategory(categoryId), name, pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    @QueryBudget(3)
+    public Page<ProductDTO> findAllPaged(
+            ProductFilter filter,
+            String name,
+            Pageable pageRequest) {
+        return this.loadPage(this.findPageIds(filter, name, pageRequest));
+    }
+
+    /**
+     * The same page as {@link #findAllPaged} without descriptions or category names, for
+     * listings that only show the grid.
+     */
+    @Transactional(readOnly = true)
+    @QueryBudget(3)
+    public Page<ProductSummaryDTO> findAllSummaries(
+            Long categoryId,
+            String name,
+            Pageable pageRequest) {
+        return this.findAllSummaries(ProductFilter.ofCategory(categoryId), name, pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    @QueryBudget(3)
+    public Page<ProductSummaryDTO> findAllSummaries(
+            ProductFilter filter,
+            String name,
+            Pageable pageRequest) {
+        Page<Long> pagedIds = this.findPageIds(filter, name, pageRequest);
+        List<ProductSummaryRow> rows = pagedIds.isEmpty()
+                ? List.of()
+                : this.productRepository.findSummariesByIds(pagedIds.getContent());
+
+        // One row per product/category pair, folded like the full listing's fetch join
+        Map<Long, ProductSummaryDTO> summaries = new HashMap<>();
+        for (ProductSummaryRow row : rows) {
+            ProductSummaryDTO summary = summaries.computeIfAbsent(row.getId(), id -> new ProductSummaryDTO(
+                    row.getId(), row.getName(), row.getPrice(), row.getImgUrl(), row.getDate(), row.getUpdatedAt()));
+            if (row.getCategoryId() != null) {
+                summary.getCategoryIds().add(row.getCategoryId());
+            }
+        }
+        return pagedIds.map(summaries::get);
+    }
+
+    // A single category (or none) keeps to the cached JPQL listing; price and date bounds,
+    // several categories and name searches go through the specification query
+    private Page<Long> findPageIds(
+            ProductFilter filter,
+            String name,
+            Pageable pageRequest) {
+        if (!name.isEmpty()) {
+            return this.search(filter, name, pageRequest);
+        }
+        if (!filter.isSingleCategory()) {
+            return this.productRepository.findIdsMatching(filter, null, pageRequest);
+        }
+        List<Category> categories = filter.getCategoryIds().isEmpty()
+                ? null
+                : List.of(categoryRepository.getReferenceById(filter.getCategoryIds().get(0)));
+        return this.productRepository.findIds(categories, pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    @QueryBudget(3)
+    public SliceDTO<ProductDTO> findAllSliced(
+            Long categoryId,
+            String name,
+            Pageable pageRequest,
+            boolean approximateCount) {
+        return this.findAllSliced(ProductFilter.ofCategory(categoryId), name, pageRequest, approximateCount);
+    }
+
+    @Transactional(readOnly = true)
+    @QueryBudget(3)
+    public SliceDTO<ProductDTO> findAllSliced(
+            ProductFilter filter,
+            String name,
+            Pageable pageRequest,
+            boolean approximateCount) {
+        if (!name.isEmpty()) {
+            // The search index already holds every hit, so its total costs nothing extra
+            Page<ProductDTO> page = this.loadPage(this.findPageIds(filter, name, pageRequest));
+            Slice<ProductDTO> slice = new SliceImpl<>(page.getContent(), pageRequest, page.hasNext());
+            return new SliceDTO<>(slice, approximateCount ? page.getTotalElements() : null);
+        }
+        Slice<Long> slicedIds;
+        Supplier<Long> exactCount;
+        if (filter.isSingleCategory()) {
+            List<Category> categories = filter.getCategoryIds().isEmpty()
+                    ? null
+                    : List.of(categoryRepository.getReferenceById(filter.getCategoryIds().get(0)));
+            slicedIds = this.productRepository.findIdsSlice(categories, pageRequest);
+            exactCount = () -> this.productRepository.countIds(categories);
+        } else {
+            slicedIds = this.productRepository.findIdsSliceMatching(filter, pageRequest);
+            exactCount = () -> this.productRepository.countMatching(filter, null);
+        }
+        Slice<ProductDTO> slice = this.loadSlice(slicedIds);
+        Long total = approximateCount ? this.approximateCounter.count("products:" + filter.key(), exactCount) : null;
+        return new SliceDTO<>(slice, total);
+    }
+
+    @Transactional(readOnly = true)
+    @QueryBudget(2)
+    public CursorPageDTO<ProductDTO> findAllByCursor(
+            Long categoryId,
+            String after,
+            Pageable pageRequest) {
+        return this.findAllByCursor(ProductFilter.ofCategory(categoryId), after, pageRequest);
+    }
+
+    @Transactional(readOnly = true)
+    @QueryBudget(2)
+    public CursorPageDTO<ProductDTO> findAllByCursor(
+            ProductFilter filter,
+            String after,
+            Pageable pageRequest) {
+        Keyset keyset = KeysetCursors.decode(after, pageRequest.getSort(), KEYSET_PROPERTIES);
+        int size = pageRequest.getPageSize();
+
+        List<Long> ids = this.productRepository.findIdsAfter(filter, keyset, size + 1);
+        boolean hasNext = ids.size() > size;
+        List<ProductDTO> content = this.loadPage(new PageImpl<>(hasNext ? ids.subList(0, size) : ids)).getContent();
+
+        ProductDTO last = hasNext ? content.get(content.size() - 1) : null;
+        return new CursorPageDTO<>(content, hasNext ? KeysetCursors.next(keyset, last, last.getId()) : null);
+    }
+
+    // Explicit sorts and every total cover the whole match set. Only the relevance order has
+    // to come from the index, so it alone stops at the best catalog.search.max-results hits
+    private Page<Long> search(
+            ProductFilter filter,
+            String name,
+            Pageable pageRequest) {
+        Specification<Product> matching = this.searchIndex.matching(name);
+        if (pageRequest.getSort().isSorted()) {
+            return this.productRepository.findIdsMatching(filter, matching, pageRequest);
+        }
+
+        List<Long> rankedIds = this.searchIndex.search(name, this.searchMaxResults);
+        if (rankedIds.isEmpty()) {
+            return Page.empty(pageRequest);
+        }
+        Set<Long> inFilter = Set.copyOf(this.productRepository.findIdsMatching(
+                filter, ProductSpecifications.idIn(rankedIds), Pageable.unpaged()).getContent());
+        List<Long> matchingIds = rankedIds.stream().filter(inFilter::contains).collect(Collectors.toList());
+        // Short of the cap, the ranking already holds every match
+        long total = rankedIds.size() < this.searchMaxResults
+                ? matchingIds.size()
+                : this.productRepository.countMatching(filter, matching);
+        int start = (int) Math.min(pageRequest.getOffset(), matchingIds.size());
+        int end = Math.min(start + pageRequest.getPageSize(), matchingIds.size());
+        return new PageImpl<>(matchingIds.subList(start, end), pageRequest, total);
     }
 
+    // Second phase of the listing: the page of ids is already sorted and limited, so the
+    // products and their categories are fetched in one round trip and put back in id order.
+    // The fetch join repeats a product once per category; those rows are folded here rather
+    // than with a DISTINCT that would make the database compare whole product rows
+    private Page<ProductDTO> loadPage(Page<Long> pagedIds) {
+        Map<Long, Product> products = this.loadProducts(pagedIds.getContent());
+        return pagedIds.map(id -> new ProductDTO(products.get(id), products.get(id).getCategories()));
+    }
+
+    private Slice<ProductDTO> loadSlice(Slice<Long> slicedIds) {
+        Map<Long, Product> products = this.loadProducts(slicedIds.getContent());
+        return slicedIds.map(id -> new ProductDTO(products.get(id), products.get(id).getCategories()));
+    }
+
+    private Map<Long, Product> loadProducts(List<Long> ids) {
+        return ids.isEmpty() ? Map.of() : this.productRepository
+                .findProductsWithCategoriesByIds(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (first, duplicate) -> first));
+    }
+
+    /**
+     * Products per category, for every category. Without a name this is read from memory;
+     * with one it is a single grouped count over every search match, not only the ranked
+     * hits the listing is capped to.
+     */
     @Transactional(readOnly = true)
+    @QueryBudget(2)
+    public List<CategoryFacetDTO> findFacets(String name) {
+        Map<Long, Long> counts;
+        if (name.isEmpty()) {
+            counts = this.categoryCounts.counts();
+        } else {
+            counts = this.searchIndex.countByCategory(name);
+        }
+        return this.categoryCache.findAll(Pageable.unpaged()).orElseThrow().stream()
+                .map(category -> new CategoryFacetDTO(category.getId(), category.getName(),
+                        counts.getOrDefault(category.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    @QueryBudget(2)
     public ProductDTO findById(Long id) {
         Optional<Product> obj = this.productRepository.findById(id);
         Product product = obj.orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado"));
@@ -50,29 +294,65 @@ public class ProductService {
     @Transactional
     public ProductDTO createProduct(ProductDTO newProduct){
         Product newProductEntity = new Product();
-        this.copyDtoToEntity(newProduct, newProductEntity);
+        List<CategoryDTO> categories = this.copyDtoToEntity(newProduct, newProductEntity);
         newProductEntity = this.productRepository.save(newProductEntity);
-        return new ProductDTO(newProductEntity, newProductEntity.getCategories());
+        this.searchIndex.index(newProductEntity);
+        this.categoryCounts.adjustAfterCommit(List.of(), categoryIds(categories));
+        return this.toDto(newProductEntity, categories);
     }
 
     @Transactional
     public ProductDTO updateProduct(
             Long id,
             ProductDTO newProduct){
+        return this.updateProduct(id, newProduct, null);
+    }
+
+    /**
+     * Lost updates are refused twice over: a version the caller expects (from If-Match or
+     * from the body) must match the stored one, and the @Version check on flush catches an
+     * edit that commits between that comparison and this one.
+     */
+    @Transactional
+    public ProductDTO updateProduct(
+            Long id,
+            ProductDTO newProduct,
+            Long expectedVersion){
         try {
             Product productEntity = this.productRepository.getReferenceById(id);
-            this.copyDtoToEntity(newProduct, productEntity);
+            if (expectedVersion != null && !expectedVersion.equals(productEntity.getVersion())) {
+                throw new PreconditionFailedException("Produto alterado por outra requisição");
+            }
+            if (newProduct.getVersion() != null && !newProduct.getVersion().equals(productEntity.getVersion())) {
+                throw new ConflictException("Produto alterado por outra requisição");
+            }
+            Set<Long> before = productEntity.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+            List<CategoryDTO> categories = this.copyDtoToEntity(newProduct, productEntity);
+            Set<Long> after = categoryIds(categories);
+            this.categoryCounts.adjustAfterCommit(
+                    before.stream().filter(categoryId -> !after.contains(categoryId)).collect(Collectors.toList()),
+                    after.stream().filter(categoryId -> !before.contains(categoryId)).collect(Collectors.toList()));
             productEntity = this.productRepository.save(productEntity);
-            return new ProductDTO(productEntity, productEntity.getCategories());
+            // Flushed here so the version in the response is the one just written
+            this.productRepository.flush();
+            this.searchIndex.index(productEntity);
+            return this.toDto(productEntity, categories);
         } catch (EntityNotFoundException e){
             throw new ResourceNotFoundException("Id not found: " + id);
+        } catch (OptimisticLockingFailureException e){
+            throw new ConflictException("Produto alterado por outra requisição");
         }
     }
 
     public void deleteProduct(
             Long id){
         try{
+            List<Long> categoryIds = this.productRepository.findCategoryIds(id);
             this.productRepository.deleteById(id);
+            this.searchIndex.remove(id);
+            this.categoryCounts.adjustAfterCommit(categoryIds, List.of());
+            // READ_WRITE leaves a soft lock behind for the deleted row; drop it once the delete is visible
+            AfterCommit.run(() -> this.entityManagerFactory.getCache().evict(Product.class, id));
         } catch(EmptyResultDataAccessException e){
             throw new ResourceNotFoundException("Id not found: " + id);
         } catch(DataIntegrityViolationException e){
@@ -80,17 +360,54 @@ public class ProductService {
         }
     }
 
-    private void copyDtoToEntity(ProductDTO dto, Product entity){
+    // Categories are checked against the category cache and linked through references,
+    // so writing a product never selects its categories from the database. Only the
+    // categories that actually changed are removed or added: clearing the set would make
+    // Hibernate delete every tb_product_category row of the product and insert them again
+    private List<CategoryDTO> copyDtoToEntity(ProductDTO dto, Product entity){
+        boolean changed = !Objects.equals(entity.getName(), dto.getName())
+                || !Objects.equals(entity.getDescription(), dto.getDescription())
+                || !Objects.equals(entity.getPrice(), dto.getPrice())
+                || !Objects.equals(entity.getImgUrl(), dto.getImgUrl())
+                || !Objects.equals(entity.getDate(), dto.getDate());
         entity.setName(dto.getName());
         entity.setDescription(dto.getDescription());
         entity.setPrice(dto.getPrice());
         entity.setImgUrl(dto.getImgUrl());
         entity.setDate(dto.getDate());
-        entity.getCategories().clear();
 
+        Map<Long, CategoryDTO> wanted = new LinkedHashMap<>();
         for (CategoryDTO categoryDTO : dto.getCategories()){
-            Category category = this.categoryRepository.getReferenceById(categoryDTO.getId());
-            entity.getCategories().add(category);
+            CategoryDTO cached = this.categoryCache.findById(categoryDTO.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
+            wanted.put(cached.getId(), cached);
+        }
+
+        // Compared by id: the set may hold uninitialized proxies
+        changed |= entity.getCategories().removeIf(category -> !wanted.containsKey(category.getId()));
+        Set<Long> linked = new HashSet<>();
+        entity.getCategories().forEach(category -> linked.add(category.getId()));
+        for (Long id : wanted.keySet()) {
+            if (!linked.contains(id)) {
+                entity.getCategories().add(this.categoryRepository.getReferenceById(id));
+                changed = true;
+            }
         }
+        // Category-only edits leave the row clean, so @PreUpdate alone would miss them. An
+        // identical PUT touches nothing, keeping the version and the ETag its retry sends
+        if (changed) {
+            entity.setUpdatedAt(Instant.now());
+        }
+        return new ArrayList<>(wanted.values());
+    }
+
+    private static Set<Long> categoryIds(List<CategoryDTO> categories) {
+        return categories.stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+    }
+
+    private ProductDTO toDto(Product entity, List<CategoryDTO> categories) {
+        ProductDTO dto = new ProductDTO(entity);
+        categories.forEach(dto::addCategory);
+        return dto;
     }
 }
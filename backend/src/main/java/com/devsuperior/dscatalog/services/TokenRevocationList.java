@@ -0,0 +1,189 @@
+package com.devsuperior.dscatalog.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ids (jti) of revoked tokens, kept only until the tokens would have expired anyway.
+ * Entries are grouped into buckets by expiry; each bucket pairs a Bloom filter with the
+ * exact set, so the check every request makes is one map lookup and a few bit reads, and
+ * only reaches the set on a probable hit. A bucket is dropped whole once its last token has expired. With a
+ * snapshot file configured, the list is written after each revocation and read back on
+ * startup.
+ */
+@Component
+public class TokenRevocationList {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final long bucketSeconds;
+    private final int bloomBits;
+    private final int bloomHashes;
+    private final Path snapshot;
+    private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+    public TokenRevocationList(
+            @Value("${catalog.security.revocation.bucket}") Duration bucket,
+            @Value("${catalog.security.revocation.expected-per-bucket}") int expectedPerBucket,
+            @Value("${catalog.security.revocation.snapshot}") String snapshot) {
+        this.bucketSeconds = Math.max(1, bucket.toSeconds());
+        // Sized for a 1% false positive rate at the expected count: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        this.bloomBits = Math.max(64, (int) Math.ceil(-expectedPerBucket * Math.log(0.01) / (Math.log(2) * Math.log(2))));
+        this.bloomHashes = Math.max(1, (int) Math.round((double) bloomBits / Math.max(1, expectedPerBucket) * Math.log(2)));
+        this.snapshot = snapshot.isBlank() ? null : Path.of(snapshot);
+        load();
+    }
+
+    @Autowired
+    public void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("jwt.revoked", this, TokenRevocationList::size).register(registry);
+    }
+
+    /**
+     * Whether the token is revoked. Callers pass the token's own expiry, which names the one
+     * bucket its id could be in.
+     */
+    public boolean isRevoked(String tokenId, Instant expiresAt) {
+        if (tokenId == null || buckets.isEmpty()) {
+            return false;
+        }
+        long now = Instant.now().getEpochSecond();
+        dropExpired(now);
+        Bucket bucket = buckets.get(bucketEnd(expiresAt.getEpochSecond()));
+        if (bucket == null) {
+            return false;
+        }
+        int hash1 = tokenId.hashCode();
+        return bucket.mightContain(hash1, secondHash(hash1)) && bucket.tokenIds.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes the token until {@code expiresAt}; a token that has already expired needs no entry.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        long expiry = expiresAt.getEpochSecond();
+        long now = Instant.now().getEpochSecond();
+        if (expiry <= now) {
+            return;
+        }
+        add(tokenId, expiry);
+        dropExpired(now);
+        save();
+    }
+
+    public int size() {
+        return buckets.values().stream().mapToInt(bucket -> bucket.tokenIds.size()).sum();
+    }
+
+    private void add(String tokenId, long expiry) {
+        Bucket bucket = buckets.computeIfAbsent(bucketEnd(expiry), end -> new Bucket(bloomBits, bloomHashes));
+        bucket.tokenIds.put(tokenId, expiry);
+        int hash1 = tokenId.hashCode();
+        bucket.add(hash1, secondHash(hash1));
+    }
+
+    // Keyed by the end of the bucket, so everything in it has expired once that time passes
+    private long bucketEnd(long expiry) {
+        return (expiry / bucketSeconds + 1) * bucketSeconds;
+    }
+
+    // Odd, so successive probes never collapse onto one bit
+    private static int secondHash(int hash1) {
+        return Integer.reverse(hash1) * 0x9E3779B9 | 1;
+    }
+
+    private void dropExpired(long now) {
+        if (!buckets.isEmpty() && buckets.firstKey() <= now) {
+            buckets.headMap(now, true).clear();
+        }
+    }
+
+    private synchronized void save() {
+        if (snapshot == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        buckets.values().forEach(bucket -> bucket.tokenIds.forEach((tokenId, expiry) -> lines.add(tokenId + " " + expiry)));
+        try {
+            Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            Files.write(temporary, lines, StandardCharsets.UTF_8);
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Cannot write revocation snapshot " + snapshot + ": " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (snapshot == null || !Files.exists(snapshot)) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        try {
+            for (String line : Files.readAllLines(snapshot, StandardCharsets.UTF_8)) {
+                String[] fields = line.trim().split(" ");
+                if (fields.length == 2 && Long.parseLong(fields[1]) > now) {
+                    add(fields[0], Long.parseLong(fields[1]));
+                }
+            }
+            logger.info("Loaded " + size() + " revoked tokens from " + snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read revocation snapshot " + snapshot, e);
+        }
+    }
+
+    private static final class Bucket {
+        private final AtomicLongArray bits;
+        private final int size;
+        private final int hashes;
+        private final Map<String, Long> tokenIds = new ConcurrentHashMap<>();
+
+        private Bucket(int size, int hashes) {
+            this.bits = new AtomicLongArray((size + 63) / 64);
+            this.size = size;
+            this.hashes = hashes;
+        }
+
+        // Double hashing: the i-th probe is hash1 + i * hash2, as in Kirsch and Mitzenmacher
+        private void add(int hash1, int hash2) {
+            for (int i = 0; i < hashes; i++) {
+                int bit = Math.floorMod(hash1 + i * hash2, size);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        private boolean mightContain(int hash1, int hash2) {
+            for (int i = 0; i < hashes; i++) {
+                int bit = Math.floorMod(hash1 + i * hash2, size);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
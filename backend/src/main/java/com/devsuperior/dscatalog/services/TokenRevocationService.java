@@ -0,0 +1,63 @@
+package com.devsuperior.dscatalog.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.stereotype.Service;
+
+/**
+ * Token revocation (RFC 7009). Users revoke their own access or refresh tokens, admins
+ * anyone's. A token that is invalid, expired or already revoked is accepted silently, as
+ * the RFC asks, so a client cannot probe tokens through this endpoint.
+ */
+@Service
+public class TokenRevocationService {
+
+    @Autowired
+    private JwtTokenStore tokenStore;
+
+    @Autowired
+    private TokenRevocationList revocations;
+
+    /**
+     * Revokes {@code tokenValue}, or the caller's own access token when it is null.
+     */
+    public void revoke(String tokenValue, Authentication caller) {
+        if (tokenValue == null) {
+            tokenValue = ((OAuth2AuthenticationDetails) caller.getDetails()).getTokenValue();
+        }
+        try {
+            OAuth2AccessToken accessToken = tokenStore.readAccessToken(tokenValue);
+            checkOwner(tokenStore.readAuthentication(accessToken), caller);
+            Object jti = accessToken.getAdditionalInformation().get(JwtAccessTokenConverter.TOKEN_ID);
+            revocations.revoke(String.valueOf(jti), accessToken.getExpiration().toInstant());
+            return;
+        } catch (InvalidTokenException e) {
+            // Not a valid access token; it may still be a refresh token
+        }
+        try {
+            OAuth2RefreshToken refreshToken = tokenStore.readRefreshToken(tokenValue);
+            if (refreshToken instanceof ExpiringOAuth2RefreshToken) {
+                checkOwner(tokenStore.readAuthenticationForRefreshToken(refreshToken), caller);
+                tokenStore.removeRefreshToken(refreshToken);
+            }
+        } catch (InvalidTokenException e) {
+            // Nothing to revoke
+        }
+    }
+
+    private static void checkOwner(OAuth2Authentication token, Authentication caller) {
+        boolean admin = caller.getAuthorities().stream().anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!admin && !caller.getName().equals(token.getName())) {
+            throw new AccessDeniedException("Cannot revoke another user's token");
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.devsuperior.dscatalog.services;
 
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.dto.RoleDTO;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
 import com.devsuperior.dscatalog.dto.UserUpdateDTO;
 import com.devsuperior.dscatalog.entities.Role;
 import com.devsuperior.dscatalog.entities.User;
+import com.devsuperior.dscatalog.instrumentation.QueryBudget;
+import com.devsuperior.dscatalog.repositories.Keyset;
 import com.devsuperior.dscatalog.repositories.RoleRepository;
 import com.devsuperior.dscatalog.repositories.UserRepository;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
@@ -25,12 +28,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService implements UserDetailsService {
     private static Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    private static final Set<String> KEYSET_PROPERTIES = Set.of("id", "email");
+
     @Autowired
     private UserRepository userRepository;
 
@@ -40,13 +50,35 @@ public class UserService implements UserDetailsService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Transactional(readOnly = true)
+    @QueryBudget(3)
     public Page<UserDTO> findAllPaged(Pageable pageRequest) {
         Page<User> pagedList = this.userRepository.findAll(pageRequest);
         return pagedList.map(UserDTO::new);
     }
 
     @Transactional(readOnly = true)
+    @QueryBudget(3)
+    public CursorPageDTO<UserDTO> findAllByCursor(String after, Pageable pageRequest) {
+        Keyset keyset = KeysetCursors.decode(after, pageRequest.getSort(), KEYSET_PROPERTIES);
+        int size = pageRequest.getPageSize();
+
+        List<Long> ids = this.userRepository.findIdsAfter(keyset, size + 1);
+        boolean hasNext = ids.size() > size;
+        List<Long> pageIds = hasNext ? ids.subList(0, size) : ids;
+        Map<Long, User> users = this.userRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserDTO> content = pageIds.stream().map(id -> new UserDTO(users.get(id))).collect(Collectors.toList());
+
+        UserDTO last = hasNext ? content.get(content.size() - 1) : null;
+        return new CursorPageDTO<>(content, hasNext ? KeysetCursors.next(keyset, last, last.getId()) : null);
+    }
+
+    @Transactional(readOnly = true)
+    @QueryBudget(1)
     public UserDTO findById(Long id) {
         Optional<User> obj = this.userRepository.findById(id);
         User user = obj.orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
@@ -70,6 +102,7 @@ public class UserService implements UserDetailsService {
             User userEntity = this.userRepository.getReferenceById(id);
             this.copyDtoToEntity(newUser, userEntity);
             userEntity = this.userRepository.save(userEntity);
+            this.principalCache.evictAfterCommit(id);
             return new UserDTO(userEntity);
         } catch (EntityNotFoundException e){
             throw new ResourceNotFoundException("Id not found: " + id);
@@ -80,6 +113,7 @@ public class UserService implements UserDetailsService {
             Long id){
         try{
             this.userRepository.deleteById(id);
+            this.principalCache.evictAfterCommit(id);
         } catch(EmptyResultDataAccessException e){
             throw new ResourceNotFoundException("Id not found: " + id);
         } catch(DataIntegrityViolationException e){
@@ -101,7 +135,7 @@ public class UserService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = this.userRepository.findByEmail(username);
+        User user = this.principalCache.findByEmail(username).orElse(null);
         if (user == null) {
             logger.error("User not found: " +  username);
             throw new UsernameNotFoundException("Email not found");
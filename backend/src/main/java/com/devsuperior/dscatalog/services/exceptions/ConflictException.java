@@ -0,0 +1,7 @@
+package com.devsuperior.dscatalog.services.exceptions;
+
+public class ConflictException extends RuntimeException{
+    public ConflictException(String message){
+        super(message);
+    }
+}
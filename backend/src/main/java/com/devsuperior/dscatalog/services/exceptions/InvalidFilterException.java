@@ -0,0 +1,7 @@
+package com.devsuperior.dscatalog.services.exceptions;
+
+public class InvalidFilterException extends RuntimeException{
+    public InvalidFilterException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,238 @@
+package com.devsuperior.dscatalog.services.search;
+
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.repositories.CategoryCount;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.repositories.ProductSpecifications;
+import com.devsuperior.dscatalog.services.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-process trigram index over product name and description, used by the profiles
+ * that run on H2. Words are padded like pg_trgm does ("  w", " wo", "wor", "ord", "rd "),
+ * so terms of three or more characters match anywhere inside a word and shorter terms
+ * match word prefixes.
+ */
+@Component
+@Profile("!dev")
+public class InMemoryProductSearchIndex implements ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryProductSearchIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Map<String, Set<Long>> namePostings = new HashMap<>();
+    private final Map<String, Set<Long>> descriptionPostings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        int page = 0;
+        Page<Product> batch;
+        do {
+            batch = productRepository.findAll(PageRequest.of(page++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            batch.forEach(product -> apply(product.getId(), product.getName(), product.getDescription()));
+        } while (batch.hasNext());
+        logger.info("Product search index built with " + documents.size() + " products");
+    }
+
+    @Override
+    public List<Long> search(String text, int limit) {
+        Set<String> queryGrams = queryTrigrams(text);
+        if (queryGrams.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = candidates(queryGrams);
+            for (Long id : candidates) {
+                Document document = documents.get(id);
+                int score = 0;
+                for (String gram : queryGrams) {
+                    score += document.nameGrams.contains(gram) ? 2 : 1;
+                }
+                // Favour names the query covers more tightly, like pg_trgm similarity does
+                scores.put(id, score * 1000 / (document.nameGrams.size() + queryGrams.size()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort(Comparator.<Long>comparingInt(scores::get).reversed().thenComparing(Comparator.naturalOrder()));
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    // The matches are known here only by id, so their categories are counted in the database
+    @Override
+    public Map<Long, Long> countByCategory(String text) {
+        Set<String> queryGrams = queryTrigrams(text);
+        if (queryGrams.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> matches;
+        lock.readLock().lock();
+        try {
+            matches = new ArrayList<>(candidates(queryGrams));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches.isEmpty() ? Map.of() : productRepository.countByCategoryForIds(matches).stream()
+                .collect(Collectors.toMap(CategoryCount::getCategoryId, CategoryCount::getCount));
+    }
+
+    // The match set only lives here, so the database receives it as a list of ids
+    @Override
+    public Specification<Product> matching(String text) {
+        Set<String> queryGrams = queryTrigrams(text);
+        if (queryGrams.isEmpty()) {
+            return ProductSpecifications.idIn(List.of());
+        }
+        lock.readLock().lock();
+        try {
+            return ProductSpecifications.idIn(new ArrayList<>(candidates(queryGrams)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Products holding every query trigram in their name or description; callers hold the read lock
+    private Set<Long> candidates(Set<String> queryGrams) {
+        Set<Long> candidates = null;
+        for (String gram : queryGrams) {
+            Set<Long> matches = new HashSet<>(namePostings.getOrDefault(gram, Set.of()));
+            matches.addAll(descriptionPostings.getOrDefault(gram, Set.of()));
+            if (candidates == null) {
+                candidates = matches;
+            } else {
+                candidates.retainAll(matches);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    public void index(Product product) {
+        Long id = product.getId();
+        String name = product.getName();
+        String description = product.getDescription();
+        AfterCommit.run(() -> apply(id, name, description));
+    }
+
+    @Override
+    public void remove(Long productId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                unlink(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void apply(Long id, String name, String description) {
+        Document document = new Document(trigrams(name), trigrams(description));
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            documents.put(id, document);
+            document.nameGrams.forEach(gram -> namePostings.computeIfAbsent(gram, key -> new HashSet<>()).add(id));
+            document.descriptionGrams.forEach(gram -> descriptionPostings.computeIfAbsent(gram, key -> new HashSet<>()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(Long id) {
+        Document previous = documents.remove(id);
+        if (previous != null) {
+            previous.nameGrams.forEach(gram -> unlinkPosting(namePostings, gram, id));
+            previous.descriptionGrams.forEach(gram -> unlinkPosting(descriptionPostings, gram, id));
+        }
+    }
+
+    private static void unlinkPosting(Map<String, Set<Long>> postings, String gram, Long id) {
+        Set<Long> ids = postings.get(gram);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(gram);
+        }
+    }
+
+    static Set<String> trigrams(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new HashSet<>();
+        for (String word : words(text)) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    static Set<String> queryTrigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            if (word.length() < 3) {
+                grams.add(("  " + word).substring(word.length() - 1));
+            } else {
+                for (int i = 0; i + 3 <= word.length(); i++) {
+                    grams.add(word.substring(i, i + 3));
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static String[] words(String text) {
+        String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static final class Document {
+        private final Set<String> nameGrams;
+        private final Set<String> descriptionGrams;
+
+        private Document(Set<String> nameGrams, Set<String> descriptionGrams) {
+            this.nameGrams = nameGrams;
+            this.descriptionGrams = descriptionGrams;
+        }
+    }
+}
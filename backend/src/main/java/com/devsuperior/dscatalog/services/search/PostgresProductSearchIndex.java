@@ -0,0 +1,122 @@
+package com.devsuperior.dscatalog.services.search;
+
+import com.devsuperior.dscatalog.entities.Product;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.Predicate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Searches through the pg_trgm GIN indexes created by db/postgres-search.sql. PostgreSQL
+ * keeps those indexes in sync with tb_product, so index/remove have nothing to do.
+ */
+@Component
+@Profile("dev")
+public class PostgresProductSearchIndex implements ProductSearchIndex {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> search(String text, int limit) {
+        String[] terms = terms(text);
+        if (terms.length == 0) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT p.id FROM tb_product p WHERE ");
+        appendMatch(sql, terms);
+        sql.append("ORDER BY similarity(p.name, :text) * 2 + word_similarity(:text, p.description) DESC, p.id ")
+                .append("LIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        bindTerms(query, terms);
+        query.setParameter("text", String.join(" ", terms));
+        query.setParameter("limit", limit);
+
+        return ((List<Number>) query.getResultList()).stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Long, Long> countByCategory(String text) {
+        String[] terms = terms(text);
+        if (terms.length == 0) {
+            return Map.of();
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT pc.category_id, COUNT(*) FROM tb_product p ")
+                .append("JOIN tb_product_category pc ON pc.product_id = p.id WHERE ");
+        appendMatch(sql, terms);
+        sql.append("GROUP BY pc.category_id");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        bindTerms(query, terms);
+
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : (List<Object[]>) query.getResultList()) {
+            counts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    // The same terms as search, lower-cased LIKE standing in for ILIKE, which criteria
+    // queries cannot express
+    @Override
+    public Specification<Product> matching(String text) {
+        String[] terms = terms(text);
+        return (root, query, cb) -> {
+            if (terms.length == 0) {
+                return cb.disjunction();
+            }
+            Predicate[] everyTerm = new Predicate[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                String pattern = "%" + terms[i] + "%";
+                everyTerm[i] = cb.or(
+                        cb.like(cb.lower(root.get("name")), pattern),
+                        cb.like(cb.lower(root.get("description")), pattern));
+            }
+            return cb.and(everyTerm);
+        };
+    }
+
+    private static String[] terms(String text) {
+        String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static void appendMatch(StringBuilder sql, String[] terms) {
+        for (int i = 0; i < terms.length; i++) {
+            if (i > 0) {
+                sql.append("AND ");
+            }
+            sql.append("(p.name ILIKE :term").append(i).append(" OR p.description ILIKE :term").append(i).append(") ");
+        }
+    }
+
+    private static void bindTerms(Query query, String[] terms) {
+        for (int i = 0; i < terms.length; i++) {
+            query.setParameter("term" + i, "%" + terms[i] + "%");
+        }
+    }
+
+    @Override
+    public void index(Product product) {
+    }
+
+    @Override
+    public void remove(Long productId) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.devsuperior.dscatalog.services.search;
+
+import com.devsuperior.dscatalog.entities.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductSearchIndex {
+
+    /**
+     * Returns the ids of the products whose name or description match every term of the
+     * query, best matches first, capped at {@code limit} entries.
+     */
+    List<Long> search(String text, int limit);
+
+    /**
+     * Counts the products matching the query in each category, keyed by category id. Unlike
+     * {@link #search} this covers every match, not just the best ranked ones.
+     */
+    Map<Long, Long> countByCategory(String text);
+
+    /**
+     * Selects every product matching the query, for listings sorted by something other than
+     * relevance and for totals, which have to cover more than the ranked hits.
+     */
+    Specification<Product> matching(String text);
+
+    void index(Product product);
+
+    void remove(Long productId);
+}
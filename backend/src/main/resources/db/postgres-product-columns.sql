@@ -0,0 +1,3 @@
+ALTER TABLE tb_product ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITHOUT TIME ZONE;
+UPDATE tb_product SET updated_at = CURRENT_TIMESTAMP WHERE updated_at IS NULL;
+ALTER TABLE tb_product ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
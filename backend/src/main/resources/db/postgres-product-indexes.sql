@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_product_price ON tb_product (price, id);
+CREATE INDEX IF NOT EXISTS idx_product_date ON tb_product (date, id);
+CREATE INDEX IF NOT EXISTS idx_product_category_category ON tb_product_category (category_id, product_id);
@@ -0,0 +1,3 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_product_name_trgm ON tb_product USING GIN (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_product_description_trgm ON tb_product USING GIN (description gin_trgm_ops);
@@ -0,0 +1,103 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.entities.Authorities;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.FilterInvocation;
+
+import java.util.Collection;
+import java.util.List;
+
+public class AccessRulesTests {
+    private AccessRules rules;
+    private Authentication anonymous;
+    private Authentication operator;
+    private Authentication admin;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rules = AccessRules.builder()
+                .add(new String[] { "/oauth/token", "/h2-console/**" }, AccessRules.permitAll())
+                .add(HttpMethod.GET, new String[] { "/products/**" }, AccessRules.permitAll())
+                .add(new String[] { "/products/**" }, AccessRules.hasAnyRole("OPERATOR", "ADMIN"))
+                .add(new String[] { "/users/**" }, AccessRules.hasAnyRole("ADMIN"))
+                .anyRequest(AccessRules.authenticated());
+        anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+        operator = new UsernamePasswordAuthenticationToken("alex@gmail.com", null, List.of(Authorities.OPERATOR));
+        admin = new UsernamePasswordAuthenticationToken("maria@gmail.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_OPERATOR", "ROLE_ADMIN"));
+    }
+
+    @Test
+    public void getAttributesShouldReturnNullForPublicPaths() {
+        Assertions.assertNull(rules.getAttributes(invocation("POST", "/oauth/token")));
+        Assertions.assertNull(rules.getAttributes(invocation("GET", "/h2-console")));
+        Assertions.assertNull(rules.getAttributes(invocation("GET", "/h2-console/login.do")));
+        Assertions.assertNull(rules.getAttributes(invocation("GET", "/products/1")));
+    }
+
+    @Test
+    public void getAttributesShouldMatchWholeSegmentsAndExactPathsOnly() {
+        Assertions.assertNotNull(rules.getAttributes(invocation("POST", "/oauth/token/extra")));
+        Assertions.assertNotNull(rules.getAttributes(invocation("GET", "/products-archive")));
+    }
+
+    @Test
+    public void getAttributesShouldMatchExactPathsWithTrailingSlash() {
+        AccessRules exact = AccessRules.builder()
+                .add(new String[] { "/products/export" }, AccessRules.hasAnyRole("OPERATOR", "ADMIN"))
+                .add(new String[] { "/products/**" }, AccessRules.permitAll())
+                .anyRequest(AccessRules.authenticated());
+
+        Assertions.assertNotNull(exact.getAttributes(invocation("GET", "/products/export")));
+        Assertions.assertNotNull(exact.getAttributes(invocation("GET", "/products/export/")));
+        Assertions.assertNull(exact.getAttributes(invocation("GET", "/products/exports")));
+    }
+
+    @Test
+    public void decideShouldRequireRoleOfFirstMatchingRule() {
+        FilterInvocation update = invocation("PUT", "/products/1");
+        FilterInvocation users = invocation("GET", "/users");
+
+        rules.decide(operator, update, rules.getAttributes(update));
+        rules.decide(admin, users, rules.getAttributes(users));
+        Assertions.assertThrows(AccessDeniedException.class, () -> rules.decide(operator, users, rules.getAttributes(users)));
+        Assertions.assertThrows(AccessDeniedException.class, () -> rules.decide(anonymous, update, rules.getAttributes(update)));
+    }
+
+    @Test
+    public void decideShouldRequireAuthenticationForAnyOtherRequest() {
+        FilterInvocation revoke = invocation("POST", "/oauth/revoke");
+        FilterInvocation unknownMethod = invocation("PROPFIND", "/anything");
+        Collection<ConfigAttribute> attributes = rules.getAttributes(revoke);
+
+        rules.decide(operator, revoke, attributes);
+        Assertions.assertThrows(AccessDeniedException.class, () -> rules.decide(anonymous, revoke, attributes));
+        Assertions.assertThrows(AccessDeniedException.class,
+                () -> rules.decide(anonymous, unknownMethod, rules.getAttributes(unknownMethod)));
+    }
+
+    @Test
+    public void builderShouldRejectWildcardsOtherThanTrailingPrefix() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> AccessRules.builder().add(new String[] { "/products/*/image" }, AccessRules.permitAll()));
+    }
+
+    private static FilterInvocation invocation(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return new FilterInvocation(request, new MockHttpServletResponse(), (req, res) -> {
+        });
+    }
+}
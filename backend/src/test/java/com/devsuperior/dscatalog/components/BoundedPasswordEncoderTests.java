@@ -0,0 +1,51 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.services.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+public class BoundedPasswordEncoderTests {
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    public void matchesShouldVerifyHashProducedByEncode() {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("123456");
+
+        Assertions.assertTrue(hash.startsWith("$2a$04$"));
+        Assertions.assertTrue(encoder.matches("123456", hash));
+        Assertions.assertFalse(encoder.matches("654321", hash));
+    }
+
+    @Test
+    public void encodeShouldThrowTooManyRequestsExceptionWhenPoolIsSaturated() throws Exception {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        encoder.getExecutor().execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        encoder.getExecutor().execute(() -> { });
+
+        try {
+            Assertions.assertThrows(TooManyRequestsException.class, () -> {
+                encoder.encode("123456");
+            });
+        } finally {
+            release.countDown();
+        }
+    }
+}
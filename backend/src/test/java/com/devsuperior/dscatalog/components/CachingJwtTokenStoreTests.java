@@ -0,0 +1,108 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.services.TokenRevocationList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+
+public class CachingJwtTokenStoreTests {
+    private JwtAccessTokenConverter converter;
+    private TokenRevocationList revocations;
+    private CachingJwtTokenStore tokenStore;
+    private OAuth2Authentication authentication;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        converter = Mockito.spy(new JwtAccessTokenConverter());
+        converter.setSigningKey("MY-JWT-SECRET");
+        converter.afterPropertiesSet();
+        revocations = new TokenRevocationList(Duration.ofHours(1), 100, "");
+        tokenStore = new CachingJwtTokenStore(converter, 100, revocations);
+
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_OPERATOR");
+        OAuth2Request request = new OAuth2Request(Map.of(), "dscatalog", authorities, true, Set.of("read"),
+                null, null, null, null);
+        authentication = new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken("alex@gmail.com", null, authorities));
+    }
+
+    @Test
+    public void readsShouldParseEachTokenOnce() {
+        String token = encode(86_400_000L);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(token, tokenStore.readAccessToken(token).getValue());
+            Assertions.assertEquals("alex@gmail.com", tokenStore.readAuthentication(token).getName());
+        }
+
+        Mockito.verify(converter, Mockito.times(1)).extractAccessToken(Mockito.eq(token), anyMap());
+        Mockito.verify(converter, Mockito.times(1)).extractAuthentication(anyMap());
+    }
+
+    @Test
+    public void readAuthenticationShouldReturnCopyPerCall() {
+        String token = encode(86_400_000L);
+
+        OAuth2Authentication first = tokenStore.readAuthentication(token);
+        first.setDetails("request details");
+        OAuth2Authentication second = tokenStore.readAuthentication(token);
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertNull(second.getDetails());
+        Assertions.assertEquals(first.getAuthorities(), second.getAuthorities());
+    }
+
+    @Test
+    public void readsShouldParseAgainOnceTokenHasExpired() {
+        String token = encode(-1_000L);
+
+        tokenStore.readAccessToken(token);
+        tokenStore.readAccessToken(token);
+
+        Mockito.verify(converter, Mockito.times(2)).extractAccessToken(Mockito.eq(token), anyMap());
+    }
+
+    @Test
+    public void readsShouldThrowInvalidTokenExceptionWhenSignatureDoesNotMatch() {
+        String token = encode(86_400_000L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenStore.readAccessToken(tampered));
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenStore.readAccessToken(tampered));
+    }
+
+    @Test
+    public void readsShouldThrowInvalidTokenExceptionOnceCachedTokenIsRevoked() {
+        String token = encode(86_400_000L);
+        tokenStore.readAccessToken(token);
+
+        revocations.revoke("id", tokenStore.readAccessToken(token).getExpiration().toInstant());
+
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenStore.readAccessToken(token));
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenStore.readAuthentication(token));
+    }
+
+    private String encode(long validForMillis) {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("id");
+        token.setExpiration(new Date(System.currentTimeMillis() + validForMillis));
+        token.setScope(Set.of("read"));
+        return converter.enhance(token, authentication).getValue();
+    }
+}
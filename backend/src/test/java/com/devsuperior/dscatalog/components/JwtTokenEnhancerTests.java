@@ -0,0 +1,57 @@
+package com.devsuperior.dscatalog.components;
+
+import com.devsuperior.dscatalog.entities.User;
+import com.devsuperior.dscatalog.services.PrincipalCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@ExtendWith(SpringExtension.class)
+public class JwtTokenEnhancerTests {
+
+    @InjectMocks
+    private JwtTokenEnhancer enhancer;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Test
+    public void enhanceShouldUseLoadedPrincipalWithoutLookup() {
+        User user = new User(2L, "Maria", "Green", "maria@gmail.com", "hash");
+
+        OAuth2AccessToken token = enhancer.enhance(new DefaultOAuth2AccessToken("token"), authentication(user));
+
+        Assertions.assertEquals(Map.of("userFirstName", "Maria", "userId", 2L), token.getAdditionalInformation());
+        Mockito.verifyNoInteractions(principalCache);
+    }
+
+    @Test
+    public void enhanceShouldLookUpUserWhenPrincipalIsOnlyAName() {
+        User user = new User(2L, "Maria", "Green", "maria@gmail.com", "hash");
+        Mockito.when(principalCache.findByEmail("maria@gmail.com")).thenReturn(Optional.of(user));
+
+        OAuth2AccessToken token = enhancer.enhance(new DefaultOAuth2AccessToken("token"), authentication("maria@gmail.com"));
+
+        Assertions.assertEquals("Maria", token.getAdditionalInformation().get("userFirstName"));
+    }
+
+    private static OAuth2Authentication authentication(Object principal) {
+        OAuth2Request request = new OAuth2Request(Map.of(), "dscatalog", List.of(), true, Set.of("read"),
+                null, null, null, null);
+        return new OAuth2Authentication(request, new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
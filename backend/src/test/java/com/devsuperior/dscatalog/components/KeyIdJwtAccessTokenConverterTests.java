@@ -0,0 +1,122 @@
+package com.devsuperior.dscatalog.components;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class KeyIdJwtAccessTokenConverterTests {
+    private static KeyPair rsa;
+    private static KeyPair ec;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        rsa = rsaGenerator.generateKeyPair();
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        ec = ecGenerator.generateKeyPair();
+    }
+
+    @Test
+    public void tokensShouldRoundTripWithKidHeaderForRsaAndEcKeys() {
+        for (String kid : List.of("rsa", "ec")) {
+            JwtKeyRing ring = kid.equals("rsa") ? ring("rsa", rsa, "ec", ec) : ring("ec", ec, "rsa", rsa);
+            KeyIdJwtAccessTokenConverter converter = new KeyIdJwtAccessTokenConverter(ring, ring);
+
+            String token = encode(converter);
+
+            Assertions.assertEquals(kid, JwtHelper.headers(token).get("kid"));
+            Assertions.assertEquals(kid.equals("rsa") ? "RS256" : "ES256", JwtHelper.headers(token).get("alg"));
+            Assertions.assertEquals("alex@gmail.com", new JwtTokenStore(converter).readAuthentication(token).getName());
+        }
+    }
+
+    @Test
+    public void tokensSignedBeforeRotationShouldStillVerify() {
+        JwtKeyRing before = ring("ec", ec);
+        JwtKeyRing after = ring("rsa", rsa, "ec", ec);
+
+        String token = encode(new KeyIdJwtAccessTokenConverter(before, before));
+        KeyIdJwtAccessTokenConverter rotated = new KeyIdJwtAccessTokenConverter(after, after);
+
+        Assertions.assertEquals("alex@gmail.com", new JwtTokenStore(rotated).readAuthentication(token).getName());
+        Assertions.assertEquals("rsa", JwtHelper.headers(encode(rotated)).get("kid"));
+    }
+
+    @Test
+    public void readShouldThrowInvalidTokenExceptionWhenKidIsUnknownOrRetired() {
+        JwtKeyRing retired = ring("ec", ec);
+        JwtKeyRing current = ring("rsa", rsa);
+
+        String token = encode(new KeyIdJwtAccessTokenConverter(retired, retired));
+        JwtTokenStore tokenStore = new JwtTokenStore(new KeyIdJwtAccessTokenConverter(current, current));
+
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenStore.readAccessToken(token));
+    }
+
+    @Test
+    public void validatingNodeShouldVerifyWithCachedRemoteKeys() throws Exception {
+        JwtKeyRing ring = ring("rsa", rsa, "ec", ec);
+        Path jwks = tempDir.resolve("jwks.json");
+        Files.writeString(jwks, new ObjectMapper().writeValueAsString(Map.of("keys", ring.jwks())));
+        JwtTokenStore validating = new JwtTokenStore(new KeyIdJwtAccessTokenConverter(null,
+                new RemoteJwkSet(jwks.toUri().toString(), Duration.ofMinutes(1))));
+
+        String token = encode(new KeyIdJwtAccessTokenConverter(ring, ring));
+        Assertions.assertEquals("alex@gmail.com", validating.readAuthentication(token).getName());
+
+        // Keys are held after the first fetch, so the authorization server is not needed again
+        Files.delete(jwks);
+        Assertions.assertEquals("alex@gmail.com", validating.readAuthentication(token).getName());
+        JwtKeyRing ecOnly = ring("ec", ec);
+        Assertions.assertNotNull(validating.readAccessToken(encode(new KeyIdJwtAccessTokenConverter(ecOnly, ecOnly))));
+    }
+
+    private static JwtKeyRing ring(Object... kidsAndKeys) {
+        LinkedHashMap<String, KeyPair> keyPairs = new LinkedHashMap<>();
+        for (int i = 0; i < kidsAndKeys.length; i += 2) {
+            keyPairs.put((String) kidsAndKeys[i], (KeyPair) kidsAndKeys[i + 1]);
+        }
+        return new JwtKeyRing(keyPairs);
+    }
+
+    private static String encode(KeyIdJwtAccessTokenConverter converter) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_OPERATOR");
+        OAuth2Request request = new OAuth2Request(Map.of(), "dscatalog", authorities, true, Set.of("read"),
+                null, null, null, null);
+        OAuth2Authentication authentication = new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken("alex@gmail.com", null, authorities));
+
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("id");
+        token.setExpiration(new Date(System.currentTimeMillis() + 86_400_000L));
+        token.setScope(Set.of("read"));
+        return converter.enhance(token, authentication).getValue();
+    }
+}
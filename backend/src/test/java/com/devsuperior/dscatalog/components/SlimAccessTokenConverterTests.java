@@ -0,0 +1,74 @@
+package com.devsuperior.dscatalog.components;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SlimAccessTokenConverterTests {
+
+    @Test
+    public void slimTokenShouldUseShortClaimsAndRoleCodes() throws Exception {
+        JwtAccessTokenConverter converter = converter(true);
+        String token = encode(converter, "ROLE_OPERATOR", "ROLE_ADMIN");
+
+        Map<String, Object> claims = new JacksonJsonParser().parseMap(JwtHelper.decode(token).getClaims());
+        Assertions.assertEquals("maria@gmail.com", claims.get("sub"));
+        Assertions.assertEquals(List.of("O", "A"), claims.get("rol"));
+        Assertions.assertEquals("dscatalog", claims.get("cid"));
+        Assertions.assertFalse(claims.containsKey("user_name"));
+        Assertions.assertFalse(claims.containsKey("authorities"));
+        Assertions.assertFalse(claims.containsKey("client_id"));
+
+        Assertions.assertTrue(token.length() < encode(converter(false), "ROLE_OPERATOR", "ROLE_ADMIN").length());
+    }
+
+    @Test
+    public void slimTokenShouldReadBackSameAuthentication() throws Exception {
+        JwtTokenStore tokenStore = new JwtTokenStore(converter(true));
+
+        OAuth2Authentication authentication = tokenStore.readAuthentication(encode(converter(true), "ROLE_ADMIN", "ROLE_AUDITOR"));
+
+        Assertions.assertEquals("maria@gmail.com", authentication.getName());
+        Assertions.assertEquals(AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_AUDITOR"),
+                List.copyOf(authentication.getAuthorities()));
+        Assertions.assertEquals("dscatalog", authentication.getOAuth2Request().getClientId());
+        Assertions.assertEquals(Set.of("read", "write"), authentication.getOAuth2Request().getScope());
+    }
+
+    private static JwtAccessTokenConverter converter(boolean slim) throws Exception {
+        JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+        converter.setSigningKey("MY-JWT-SECRET");
+        converter.afterPropertiesSet();
+        if (slim) {
+            converter.setAccessTokenConverter(new SlimAccessTokenConverter());
+        }
+        return converter;
+    }
+
+    private static String encode(JwtAccessTokenConverter converter, String... roles) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(roles);
+        OAuth2Request request = new OAuth2Request(Map.of(), "dscatalog", authorities, true, Set.of("read", "write"),
+                null, null, null, null);
+        OAuth2Authentication authentication = new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken("maria@gmail.com", null, authorities));
+
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("vK66v541-NWqiCMB4HBwNsVNqv4");
+        token.setExpiration(new Date(System.currentTimeMillis() + 86_400_000L));
+        token.setScope(Set.of("read", "write"));
+        return converter.enhance(token, authentication).getValue();
+    }
+}
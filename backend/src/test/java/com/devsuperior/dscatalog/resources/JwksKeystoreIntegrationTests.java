@@ -0,0 +1,66 @@
+package com.devsuperior.dscatalog.resources;
+
+import com.devsuperior.dscatalog.tests.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Tokens are signed with the RSA key and still accepted when signed with the EC one
+@SpringBootTest(properties = {
+        "catalog.security.jwt.keystore.location=classpath:jwt/test-keys.p12",
+        "catalog.security.jwt.keystore.password=dscatalog",
+        "catalog.security.jwt.keystore.aliases=catalog-2026,catalog-2025"
+})
+@AutoConfigureMockMvc
+public class JwksKeystoreIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Test
+    public void jwksShouldPublishEveryKeyWithActiveKeyFirst() throws Exception {
+        ResultActions result = mockMvc.perform(get("/.well-known/jwks.json").accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.keys.length()").value(2));
+        result.andExpect(jsonPath("$.keys[0].kid").value("catalog-2026"));
+        result.andExpect(jsonPath("$.keys[0].kty").value("RSA"));
+        result.andExpect(jsonPath("$.keys[0].alg").value("RS256"));
+        result.andExpect(jsonPath("$.keys[0].d").doesNotExist());
+        result.andExpect(jsonPath("$.keys[1].kid").value("catalog-2025"));
+        result.andExpect(jsonPath("$.keys[1].crv").value("P-256"));
+    }
+
+    @Test
+    public void tokensShouldBeSignedWithActiveKeyAndNameIt() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+
+        Map<String, String> headers = JwtHelper.headers(accessToken);
+        Assertions.assertEquals("RS256", headers.get("alg"));
+        Assertions.assertEquals("catalog-2026", headers.get("kid"));
+    }
+
+    @Test
+    public void tokensSignedWithActiveKeyShouldAuthorizeRequests() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+
+        mockMvc.perform(get("/users/{id}", 1L).header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/{id}", 1L).header("Authorization", "Bearer " + accessToken + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+}
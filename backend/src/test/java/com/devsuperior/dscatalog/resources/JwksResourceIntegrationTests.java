@@ -0,0 +1,55 @@
+package com.devsuperior.dscatalog.resources;
+
+import com.devsuperior.dscatalog.tests.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class JwksResourceIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Test
+    public void jwksShouldBeEmptyWhenNoKeystoreIsConfigured() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys").isEmpty());
+    }
+
+    @Test
+    public void tokensShouldBeSignedWithSharedSecretWhenNoKeystoreIsConfigured() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+
+        Map<String, String> headers = JwtHelper.headers(accessToken);
+        Assertions.assertEquals("HS256", headers.get("alg"));
+        Assertions.assertNull(headers.get("kid"));
+    }
+
+    @Test
+    public void tokensShouldCarryFullClaimNamesByDefault() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+
+        Map<String, Object> claims = new JacksonJsonParser().parseMap(JwtHelper.decode(accessToken).getClaims());
+        Assertions.assertEquals("maria@gmail.com", claims.get("user_name"));
+        Assertions.assertTrue(((List<?>) claims.get("authorities")).containsAll(List.of("ROLE_OPERATOR", "ROLE_ADMIN")));
+        Assertions.assertFalse(claims.containsKey("rol"));
+    }
+}
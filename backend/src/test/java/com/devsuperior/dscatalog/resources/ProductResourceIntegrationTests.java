@@ -1,12 +1,16 @@
 package com.devsuperior.dscatalog.resources;
 
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Product;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
 import com.devsuperior.dscatalog.services.ProductService;
 import com.devsuperior.dscatalog.tests.Factory;
 import com.devsuperior.dscatalog.tests.TokenUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,14 +19,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -38,6 +53,12 @@ public class ProductResourceIntegrationTests {
     @Autowired
     private TokenUtil tokenUtil;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private Long existingId;
     private Long nonExistingId;
     private Long countTotalProducts;
@@ -68,6 +89,159 @@ public class ProductResourceIntegrationTests {
         result.andExpect(jsonPath("$.content[2].name").value("PC Gamer Alfa"));
     }
 
+    @Test
+    public void findAllShouldReturnSliceWithoutTotalsWhenSliceRequested() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?slice=true&page=0&size=10&sort=name,asc")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"));
+        result.andExpect(jsonPath("$.hasNext").value(true));
+        result.andExpect(jsonPath("$.totalElements").doesNotExist());
+        result.andExpect(jsonPath("$.approximateTotalElements").isEmpty());
+    }
+
+    @Test
+    public void findAllShouldReturnApproximateCountWhenRequested() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?slice=true&approximateCount=true&page=2&size=10")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.hasNext").value(false));
+        result.andExpect(jsonPath("$.approximateTotalElements").value(countTotalProducts));
+    }
+
+    @Test
+    public void findAllShouldReturnSummariesWithoutDescriptionWhenSummaryViewRequested() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products?view=summary&page=0&size=10&sort=name,asc")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.totalElements").value(countTotalProducts));
+        result.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"));
+        result.andExpect(jsonPath("$.content[0].categoryIds").isArray());
+        result.andExpect(jsonPath("$.content[0].description").doesNotExist());
+        result.andExpect(jsonPath("$.content[0].categories").doesNotExist());
+    }
+
+    @Test
+    public void findAllShouldFilterByCategoriesPriceAndDate() throws Exception {
+        ResultActions anyCategory = mockMvc.perform(get("/products?categoryIds=1,2&sort=id")
+                .accept(MediaType.APPLICATION_JSON));
+        anyCategory.andExpect(status().isOk());
+        anyCategory.andExpect(jsonPath("$.totalElements").value(3));
+        anyCategory.andExpect(jsonPath("$.content[0].id").value(1L));
+        anyCategory.andExpect(jsonPath("$.content[1].id").value(2L));
+        anyCategory.andExpect(jsonPath("$.content[2].id").value(5L));
+
+        ResultActions allCategories = mockMvc.perform(get("/products?categoryIds=1,3&categoryMatch=all")
+                .accept(MediaType.APPLICATION_JSON));
+        allCategories.andExpect(status().isOk());
+        allCategories.andExpect(jsonPath("$.totalElements").value(1));
+        allCategories.andExpect(jsonPath("$.content[0].id").value(2L));
+
+        ResultActions priceAndDate = mockMvc.perform(get("/products?minPrice=2000&dateFrom=2020-07-14T00:00:00Z&view=summary")
+                .accept(MediaType.APPLICATION_JSON));
+        priceAndDate.andExpect(status().isOk());
+        priceAndDate.andExpect(jsonPath("$.content[?(@.price < 2000)]").isEmpty());
+        priceAndDate.andExpect(jsonPath("$.content[?(@.id == 2)]").exists());
+    }
+
+    @Test
+    public void findAllShouldApplyFiltersToSliceAndCursorListings() throws Exception {
+        ResultActions slice = mockMvc.perform(get("/products?slice=true&approximateCount=true&categoryIds=1,2&sort=id")
+                .accept(MediaType.APPLICATION_JSON));
+        slice.andExpect(status().isOk());
+        slice.andExpect(jsonPath("$.content.length()").value(3));
+        slice.andExpect(jsonPath("$.content[2].id").value(5L));
+        slice.andExpect(jsonPath("$.approximateTotalElements").value(3));
+
+        ResultActions priceSlice = mockMvc.perform(get("/products?slice=true&minPrice=2000&size=50")
+                .accept(MediaType.APPLICATION_JSON));
+        priceSlice.andExpect(status().isOk());
+        priceSlice.andExpect(jsonPath("$.content[?(@.price < 2000)]").isEmpty());
+        priceSlice.andExpect(jsonPath("$.content[?(@.id == 2)]").exists());
+
+        ResultActions firstPage = mockMvc.perform(get("/products?after=&categoryIds=1,3&categoryMatch=all&size=1")
+                .accept(MediaType.APPLICATION_JSON));
+        firstPage.andExpect(status().isOk());
+        firstPage.andExpect(jsonPath("$.content.length()").value(1));
+        firstPage.andExpect(jsonPath("$.content[0].id").value(2L));
+        firstPage.andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    public void findAllShouldServeCursorPageWhenSliceAndAfterAreCombined() throws Exception {
+        mockMvc.perform(get("/products?slice=true&after=").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").exists());
+    }
+
+    @Test
+    public void findAllShouldReturnBadRequestWhenFilterIsInvalid() throws Exception {
+        mockMvc.perform(get("/products?categoryIds=1,3&categoryMatch=most").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?slice=true&categoryIds=1,3&categoryMatch=most").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?after=&categoryMatch=most").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products?after=&name=gamer").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findFacetsShouldReturnProductCountPerCategory() throws Exception {
+        ResultActions result = mockMvc.perform(get("/products/facets").accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.length()").value(3));
+        result.andExpect(jsonPath("$[0].name").value("Livros"));
+        result.andExpect(jsonPath("$[0].count").value(1));
+        result.andExpect(jsonPath("$[1].count").value(2));
+        result.andExpect(jsonPath("$[2].count").value(23));
+    }
+
+    @Test
+    public void findByIdShouldReturnNotModifiedUntilProductChanges() throws Exception {
+        MvcResult first = mockMvc.perform(get("/products/{id}", existingId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/products/{id}", existingId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(content().string(""));
+
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+        mockMvc.perform(put("/products/{id}", existingId)
+                        .content(objectMapper.writeValueAsString(Factory.createProductDto()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/{id}", existingId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(Factory.createProductDto().getName()));
+    }
+
+    @Test
+    public void findAllShouldReturnNotModifiedWhenPageIsUnchanged() throws Exception {
+        String etag = mockMvc.perform(get("/products?page=0&size=10&sort=name,asc"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/products?page=0&size=10&sort=name,asc").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products?page=1&size=10&sort=name,asc").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     public void updateShouldUpdateResourceAndReturnProductDTOWhenIdExists() throws Exception {
         String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
@@ -92,6 +266,66 @@ public class ProductResourceIntegrationTests {
         result.andExpect(jsonPath("$.description").value(expectedDescription));
     }
 
+    @Test
+    public void updateShouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+        String bodyRequest = objectMapper.writeValueAsString(Factory.createProductDto());
+        String etag = mockMvc.perform(get("/products/{id}", existingId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newEtag = mockMvc.perform(put("/products/{id}", existingId)
+                        .content(bodyRequest).contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + accessToken)
+                        .header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotEquals(etag, newEtag);
+
+        mockMvc.perform(put("/products/{id}", existingId)
+                        .content(bodyRequest).contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + accessToken)
+                        .header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void updateShouldKeepVersionAndEtagWhenRetriedWithSameBody() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+        String bodyRequest = objectMapper.writeValueAsString(Factory.createProductDto());
+        String etag = mockMvc.perform(get("/products/{id}", existingId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String firstEtag = mockMvc.perform(put("/products/{id}", existingId)
+                        .content(bodyRequest).contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + accessToken)
+                        .header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String retryEtag = mockMvc.perform(put("/products/{id}", existingId)
+                        .content(bodyRequest).contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + accessToken)
+                        .header(HttpHeaders.IF_MATCH, firstEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertEquals(firstEtag, retryEtag);
+    }
+
+    @Test
+    public void updateShouldReturnConflictWhenBodyVersionIsStale() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+        ProductDTO productDTO = Factory.createProductDto();
+        productDTO.setVersion(7L);
+
+        mockMvc.perform(put("/products/{id}", existingId)
+                        .content(objectMapper.writeValueAsString(productDTO)).contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     public void updateShouldThrowNotFoundOWhenIdDoesNotExist() throws Exception {
         String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
@@ -106,4 +340,207 @@ public class ProductResourceIntegrationTests {
 
         result.andExpect(status().isNotFound());
     }
+
+    @Test
+    public void importShouldInsertValidNdjsonRecordsAndReportInvalidOnes() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+
+        String body = "{\"name\":\"Imported Phone\",\"price\":10.5,\"categories\":[{\"id\":1}]}\n" +
+                "\n" +
+                "{\"name\":\"Bad\",\"price\":-1}\n" +
+                "not json\n" +
+                "{\"name\":\"Imported Laptop\",\"price\":99.0,\"categories\":[{\"id\":2},{\"id\":3}]}\n";
+
+        ResultActions result = mockMvc.perform(post("/products/import")
+                .header("Authorization", "Bearer " + accessToken)
+                .content(body).contentType("application/x-ndjson")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.received").value(4));
+        result.andExpect(jsonPath("$.imported").value(2));
+        result.andExpect(jsonPath("$.rejected").value(2));
+        result.andExpect(jsonPath("$.errors[0].record").value(2));
+        result.andExpect(jsonPath("$.errors[0].errors.length()").value(2));
+        result.andExpect(jsonPath("$.errors[1].record").value(3));
+        result.andExpect(jsonPath("$.errors[1].errors[0].fieldName").value("record"));
+        Assertions.assertEquals(countTotalProducts + 2, productRepository.count());
+    }
+
+    @Test
+    public void importShouldIgnoreRepeatedCategoryIdsWithinRecord() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+
+        String body = "{\"name\":\"Imported Phone\",\"price\":10.5,\"categories\":[{\"id\":1}]}\n" +
+                "{\"name\":\"Imported Tablet\",\"price\":20.0,\"categories\":[{\"id\":1},{\"id\":1}]}\n" +
+                "{\"name\":\"Imported Laptop\",\"price\":99.0,\"categories\":[{\"id\":2}]}\n";
+
+        ResultActions result = mockMvc.perform(post("/products/import")
+                .header("Authorization", "Bearer " + accessToken)
+                .content(body).contentType("application/x-ndjson")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.imported").value(3));
+        result.andExpect(jsonPath("$.rejected").value(0));
+        Product tablet = productRepository.findAll(Sort.by(Sort.Direction.DESC, "id")).get(1);
+        Assertions.assertEquals("Imported Tablet", tablet.getName());
+        Assertions.assertEquals(1, tablet.getCategories().size());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DirtiesContext
+    public void importShouldRejectOnlyTheRecordTheDatabaseRefuses() throws Exception {
+        // Runs outside the test transaction so the failed batch really rolls back; the
+        // committed rows are left behind, hence the fresh context afterwards
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+
+        String body = "{\"name\":\"Imported Phone\",\"price\":10.5,\"categories\":[{\"id\":1}]}\n" +
+                "{\"name\":\"Imported Tablet\",\"price\":20.0,\"imgUrl\":\"" + "x".repeat(300) + "\"}\n" +
+                "{\"name\":\"Imported Laptop\",\"price\":99.0,\"categories\":[{\"id\":2}]}\n";
+
+        ResultActions result = mockMvc.perform(post("/products/import")
+                .header("Authorization", "Bearer " + accessToken)
+                .content(body).contentType("application/x-ndjson")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.imported").value(2));
+        result.andExpect(jsonPath("$.rejected").value(1));
+        result.andExpect(jsonPath("$.errors[0].record").value(2));
+        result.andExpect(jsonPath("$.errors[0].errors[0].fieldName").value("record"));
+        Assertions.assertEquals(countTotalProducts + 2, productRepository.count());
+    }
+
+    @Test
+    public void importShouldInsertCsvRecordsWithQuotedFields() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+
+        String body = "name,price,description,categories,date\r\n" +
+                "Imported Monitor,120.0,\"Wide, \"\"curved\"\"\nand bright\",2|3,2020-07-13T20:50:07Z\r\n" +
+                "Imported Mouse,abc,,9,\r\n";
+
+        ResultActions result = mockMvc.perform(post("/products/import")
+                .header("Authorization", "Bearer " + accessToken)
+                .content(body).contentType("text/csv")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk());
+        result.andExpect(jsonPath("$.received").value(2));
+        result.andExpect(jsonPath("$.imported").value(1));
+        result.andExpect(jsonPath("$.errors[0].record").value(2));
+        result.andExpect(jsonPath("$.errors[0].errors[0].fieldName").value("price"));
+        result.andExpect(jsonPath("$.errors[0].errors[1].fieldName").value("categories"));
+
+        Product imported = productRepository.findAll(Sort.by(Sort.Direction.DESC, "id")).get(0);
+        Assertions.assertEquals("Imported Monitor", imported.getName());
+        Assertions.assertEquals("Wide, \"curved\"\nand bright", imported.getDescription());
+        Assertions.assertEquals(2, imported.getCategories().size());
+    }
+
+    @Test
+    public void exportShouldReturnUnauthorizedWhenNoToken() throws Exception {
+        mockMvc.perform(get("/products/export"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/products/export/"))
+                .andExpect(status().isUnauthorized());
+        // The error body is JSON, so the client has to accept something besides CSV to see the 401
+        mockMvc.perform(get("/products/export/").accept("text/csv, */*;q=0.1"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void exportShouldStreamProductsOfCategoryAsNdjson() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+        MvcResult started = mockMvc.perform(get("/products/export?categoryId=1")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+
+        String[] lines = started.getResponse().getContentAsString().split("\n");
+        Assertions.assertEquals(1, lines.length);
+        ProductDTO exported = objectMapper.readValue(lines[0], ProductDTO.class);
+        Assertions.assertEquals(2L, exported.getId());
+        Assertions.assertEquals(2, exported.getCategories().size());
+        Assertions.assertFalse(objectMapper.readTree(lines[0]).has("version"));
+        Assertions.assertTrue(objectMapper.readTree(lines[0]).has("updatedAt"));
+    }
+
+    @Test
+    public void exportShouldStreamCsvFilteredByUpdatedSince() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+        MvcResult all = mockMvc.perform(get("/products/export").accept("text/csv")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(all))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"));
+
+        String[] lines = all.getResponse().getContentAsString().split("\r\n");
+        Assertions.assertEquals("id,name,description,price,imgUrl,date,updatedAt,categories", lines[0]);
+        Assertions.assertEquals(countTotalProducts + 1, lines.length);
+        Assertions.assertTrue(lines[1].startsWith("1,The Lord of the Rings,"));
+        Assertions.assertTrue(lines[1].endsWith(",2"));
+
+        MvcResult none = mockMvc.perform(get("/products/export?updatedSince=2999-01-01T00:00:00Z").accept("text/csv")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(none)).andExpect(status().isOk());
+
+        Assertions.assertEquals(1, none.getResponse().getContentAsString().split("\r\n").length);
+    }
+
+    @Test
+    public void requestsShouldRecordStatementsPerRouteAndServiceMethod() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+        double requestStatements = statements("catalog.request.statements", "uri", "/products/import", "method", "POST");
+        double serviceStatements = statements("catalog.service.statements",
+                "service", "ProductImportService", "method", "importNdjson");
+
+        mockMvc.perform(post("/products/import")
+                        .content("{\"name\":\"Counted\",\"description\":\"d\",\"price\":10.0,\"categories\":[{\"id\":1}]}\n")
+                        .contentType("application/x-ndjson")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        // One product insert and one link insert at least
+        Assertions.assertTrue(statements("catalog.request.statements", "uri", "/products/import", "method", "POST")
+                - requestStatements >= 2);
+        Assertions.assertTrue(statements("catalog.service.statements",
+                "service", "ProductImportService", "method", "importNdjson") - serviceStatements >= 2);
+    }
+
+    @Test
+    public void requestsShouldRecordSqlTimeAtNanosecondResolution() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+        double before = sqlTime("/products/import", "POST");
+
+        mockMvc.perform(post("/products/import")
+                        .content("{\"name\":\"Timed\",\"description\":\"d\",\"price\":10.0,\"categories\":[{\"id\":1}]}\n")
+                        .contentType("application/x-ndjson")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        // Millisecond timing would only ever add whole milliseconds, mostly zero
+        long recorded = (long) (sqlTime("/products/import", "POST") - before);
+        Assertions.assertTrue(recorded > 0);
+        Assertions.assertNotEquals(0, recorded % TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private double sqlTime(String uri, String method) {
+        Timer timer = meterRegistry.find("catalog.request.sql.time").tags("uri", uri, "method", method).timer();
+        return timer == null ? 0 : timer.totalTime(TimeUnit.NANOSECONDS);
+    }
+
+    private double statements(String name, String... tags) {
+        DistributionSummary summary = meterRegistry.find(name).tags(tags).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
 }
@@ -1,6 +1,7 @@
 package com.devsuperior.dscatalog.resources;
 
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.repositories.ProductFilter;
 import com.devsuperior.dscatalog.services.ProductService;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
@@ -66,14 +67,14 @@ public class ProductResourceTests {
         page = new PageImpl<>(List.of(productDTO));
         bodyRequest = objectMapper.writeValueAsString(productDTO);
 
-        when(service.findAllPaged(any(), any(), any())).thenReturn(page);
+        when(service.findAllPaged(any(ProductFilter.class), any(), any())).thenReturn(page);
         when(service.findById(existingId)).thenReturn(productDTO);
         when(service.findById(nonExistingId)).thenThrow(ResourceNotFoundException.class);
 
         when(service.createProduct(any())).thenReturn(productDTO);
 
-        when(service.updateProduct(eq(existingId), any())).thenReturn(productDTO);
-        when(service.updateProduct(eq(nonExistingId), any())).thenThrow(ResourceNotFoundException.class);
+        when(service.updateProduct(eq(existingId), any(), any())).thenReturn(productDTO);
+        when(service.updateProduct(eq(nonExistingId), any(), any())).thenThrow(ResourceNotFoundException.class);
 
         doNothing().when(service).deleteProduct(existingId);
         doThrow(ResourceNotFoundException.class).when(service).deleteProduct(nonExistingId);
@@ -0,0 +1,66 @@
+package com.devsuperior.dscatalog.resources;
+
+import com.devsuperior.dscatalog.tests.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Short claim names and role codes, see SlimAccessTokenConverter
+@SpringBootTest(properties = "catalog.security.jwt.profile=slim")
+@AutoConfigureMockMvc
+public class SlimTokenIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Test
+    public void tokensShouldCarryShortClaimsAndRoleCodes() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+
+        Map<String, Object> claims = new JacksonJsonParser().parseMap(JwtHelper.decode(accessToken).getClaims());
+        Assertions.assertEquals("maria@gmail.com", claims.get("sub"));
+        Assertions.assertTrue(((List<?>) claims.get("rol")).containsAll(List.of("O", "A")));
+        Assertions.assertFalse(claims.containsKey("user_name"));
+        Assertions.assertFalse(claims.containsKey("authorities"));
+    }
+
+    @Test
+    public void roleCodesShouldAuthorizeLikeFullRoles() throws Exception {
+        String adminToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+        String operatorToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+
+        mockMvc.perform(get("/users/{id}", 1L).header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/{id}", 1L).header("Authorization", "Bearer " + operatorToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void refreshShouldIssueSlimTokenForSameUser() throws Exception {
+        Map<String, Object> tokens = tokenUtil.obtainTokens(mockMvc, "alex@gmail.com", "123456");
+
+        String refreshed = tokenUtil.refresh(mockMvc, tokens.get("refresh_token").toString())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.access_token").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        String accessToken = new JacksonJsonParser().parseMap(refreshed).get("access_token").toString();
+        Map<String, Object> claims = new JacksonJsonParser().parseMap(JwtHelper.decode(accessToken).getClaims());
+        Assertions.assertEquals("alex@gmail.com", claims.get("sub"));
+        Assertions.assertEquals(List.of("O"), claims.get("rol"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.devsuperior.dscatalog.resources;
+
+import com.devsuperior.dscatalog.tests.TokenUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TokenRevocationResourceIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    @Test
+    public void refreshShouldIssueNewTokensAndRevokePresentedRefreshToken() throws Exception {
+        Map<String, Object> tokens = tokenUtil.obtainTokens(mockMvc, "maria@gmail.com", "123456");
+        String refreshToken = tokens.get("refresh_token").toString();
+
+        String body = tokenUtil.refresh(mockMvc, refreshToken)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Map<String, Object> refreshed = new JacksonJsonParser().parseMap(body);
+
+        Assertions.assertNotEquals(refreshToken, refreshed.get("refresh_token"));
+        mockMvc.perform(get("/users/1")
+                        .header("Authorization", "Bearer " + refreshed.get("access_token"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        tokenUtil.refresh(mockMvc, refreshToken).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void revokeShouldRejectCallersAccessTokenFromThenOn() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+
+        mockMvc.perform(post("/oauth/revoke").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/1")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void revokeShouldRejectRefreshTokenFromThenOn() throws Exception {
+        Map<String, Object> tokens = tokenUtil.obtainTokens(mockMvc, "alex@gmail.com", "123456");
+
+        mockMvc.perform(post("/oauth/revoke")
+                        .header("Authorization", "Bearer " + tokens.get("access_token"))
+                        .param("token", tokens.get("refresh_token").toString()))
+                .andExpect(status().isOk());
+
+        tokenUtil.refresh(mockMvc, tokens.get("refresh_token").toString()).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void revokeShouldReturnForbiddenWhenTokenBelongsToAnotherUser() throws Exception {
+        String operatorToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+        String adminToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+
+        mockMvc.perform(post("/oauth/revoke")
+                        .header("Authorization", "Bearer " + operatorToken)
+                        .param("token", adminToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void revokeShouldReturnOkWhenTokenIsInvalid() throws Exception {
+        String accessToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+
+        mockMvc.perform(post("/oauth/revoke")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .param("token", "not-a-token"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,105 @@
+package com.devsuperior.dscatalog.resources;
+
+import com.devsuperior.dscatalog.tests.TokenUtil;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class UserResourceIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenUtil tokenUtil;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        adminToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+    }
+
+    @Test
+    public void findAllByCursorShouldWalkUsersInSortOrderAndEndWithNullCursor() throws Exception {
+        ResultActions first = findAllByCursor("", "email,desc", adminToken);
+
+        first.andExpect(status().isOk());
+        first.andExpect(jsonPath("$.content.length()").value(1));
+        first.andExpect(jsonPath("$.content[0].email").value("maria@gmail.com"));
+        first.andExpect(jsonPath("$.hasNext").value(true));
+
+        String next = JsonPath.read(first.andReturn().getResponse().getContentAsString(), "$.nextCursor");
+        ResultActions last = findAllByCursor(next, null, adminToken);
+
+        last.andExpect(status().isOk());
+        last.andExpect(jsonPath("$.content.length()").value(1));
+        last.andExpect(jsonPath("$.content[0].email").value("alex@gmail.com"));
+        last.andExpect(jsonPath("$.hasNext").value(false));
+        last.andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void findAllByCursorShouldReturnForbiddenWhenUserIsNotAdmin() throws Exception {
+        String operatorToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+
+        findAllByCursor("", null, operatorToken).andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void findAllByCursorShouldReturnUnauthorizedWhenAnonymous() throws Exception {
+        mockMvc.perform(get("/users").param("after", "").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void findAllByCursorShouldReturnBadRequestWhenCursorIsMalformedOrTampered() throws Exception {
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("password\nASC\n1\nx".getBytes(StandardCharsets.UTF_8));
+
+        findAllByCursor("not base64!", null, adminToken).andExpect(status().isBadRequest());
+        findAllByCursor("YWJj", null, adminToken).andExpect(status().isBadRequest());
+        findAllByCursor(tampered, null, adminToken).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findAllByCursorShouldAcceptSameSortAndRejectDifferentSort() throws Exception {
+        ResultActions first = findAllByCursor("", "email,asc", adminToken);
+        String next = JsonPath.read(first.andReturn().getResponse().getContentAsString(), "$.nextCursor");
+
+        findAllByCursor(next, "email,asc", adminToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email").value("maria@gmail.com"));
+        findAllByCursor(next, "email,desc", adminToken).andExpect(status().isBadRequest());
+        findAllByCursor(next, "id,asc", adminToken).andExpect(status().isBadRequest());
+    }
+
+    private ResultActions findAllByCursor(String after, String sort, String token) throws Exception {
+        MockHttpServletRequestBuilder request = get("/users")
+                .param("after", after)
+                .param("size", "1")
+                .header("Authorization", "Bearer " + token)
+                .accept(MediaType.APPLICATION_JSON);
+        if (sort != null) {
+            request.param("sort", sort);
+        }
+        return mockMvc.perform(request);
+    }
+}
@@ -0,0 +1,118 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@Transactional
+public class CategoryServiceIntegrationTests {
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void findAllPagedShouldCountHitsForSnapshotOrdersAndMissesForOthers() {
+        categoryService.findAllPaged(PageRequest.of(0, 10, Sort.by("name")));
+        double hits = requests("hit");
+        double misses = requests("miss");
+
+        categoryService.findAllPaged(PageRequest.of(0, 10, Sort.by("name")));
+        Assertions.assertEquals(hits + 1, requests("hit"));
+        Assertions.assertEquals(misses, requests("miss"));
+
+        categoryService.findAllPaged(PageRequest.of(0, 10, Sort.by("createdAt")));
+        Assertions.assertEquals(hits + 1, requests("hit"));
+        Assertions.assertEquals(misses + 1, requests("miss"));
+    }
+
+    // The snapshot is replaced after commit, so these tests let each service call commit
+    // and undo their own writes at the end
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void cacheShouldFollowCommittedCreateUpdateAndDelete() {
+        CategoryDTO created = categoryService.createCategory(new CategoryDTO(null, "Jardinagem"));
+        Assertions.assertEquals("Jardinagem", categoryService.findById(created.getId()).getName());
+        Assertions.assertTrue(names(Sort.by("id")).contains("Jardinagem"));
+
+        categoryService.updateCategory(created.getId(), new CategoryDTO(null, "Jardim"));
+        Assertions.assertEquals("Jardim", categoryService.findById(created.getId()).getName());
+        Assertions.assertTrue(names(Sort.by("id")).contains("Jardim"));
+        Assertions.assertFalse(names(Sort.by("id")).contains("Jardinagem"));
+
+        categoryService.deleteCategory(created.getId());
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> categoryService.findById(created.getId()));
+        Assertions.assertFalse(names(Sort.by("id")).contains("Jardim"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void findAllPagedShouldSortNamesByCollationIgnoringCaseAndAccents() {
+        List<CategoryDTO> created = List.of(
+                categoryService.createCategory(new CategoryDTO(null, "Banana")),
+                categoryService.createCategory(new CategoryDTO(null, "Árvore")),
+                categoryService.createCategory(new CategoryDTO(null, "abacate")));
+        try {
+            List<String> ascending = names(Sort.by("name"));
+            List<String> descending = names(Sort.by(Sort.Direction.DESC, "name"));
+
+            Assertions.assertEquals(List.of("abacate", "Árvore", "Banana", "Computadores"), ascending.subList(0, 4));
+            Assertions.assertEquals(List.of("Computadores", "Banana", "Árvore", "abacate"),
+                    descending.subList(descending.size() - 4, descending.size()));
+        } finally {
+            created.forEach(category -> categoryService.deleteCategory(category.getId()));
+        }
+    }
+
+    @Test
+    public void lifecycleHooksShouldSetCreatedAtOnInsertAndUpdatedAtOnUpdate() {
+        CategoryDTO created = categoryService.createCategory(new CategoryDTO(null, "Jardinagem"));
+        entityManager.flush();
+
+        Category inserted = categoryRepository.findById(created.getId()).orElseThrow();
+        Assertions.assertNotNull(inserted.getCreatedAt());
+        Assertions.assertNull(inserted.getUpdatedAt());
+        Assertions.assertEquals(inserted.getCreatedAt(), created.getLastModified());
+
+        categoryService.updateCategory(created.getId(), new CategoryDTO(null, "Jardim"));
+        entityManager.flush();
+
+        Category changed = categoryRepository.findById(created.getId()).orElseThrow();
+        Assertions.assertEquals(inserted.getCreatedAt(), changed.getCreatedAt());
+        Assertions.assertNotNull(changed.getUpdatedAt());
+        Assertions.assertFalse(changed.getUpdatedAt().isBefore(changed.getCreatedAt()));
+        Assertions.assertEquals(changed.getUpdatedAt(), new CategoryDTO(changed).getLastModified());
+    }
+
+    private List<String> names(Sort sort) {
+        return categoryService.findAllPaged(PageRequest.of(0, 100, sort)).stream()
+                .map(CategoryDTO::getName)
+                .collect(Collectors.toList());
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("catalog.category.cache.requests").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,81 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.repositories.CategoryCount;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.search.ProductSearchIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Search results capped well below the number of seed products matching the term
+@SpringBootTest(properties = "catalog.search.max-results=2")
+@Transactional
+public class ProductSearchCapIntegrationTests {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void findFacetsShouldCountEveryMatchWhenMatchesExceedSearchCap() {
+        List<Long> allMatches = searchIndex.search("gamer", Integer.MAX_VALUE);
+        Assertions.assertTrue(allMatches.size() > 2);
+        Assertions.assertEquals(2, searchIndex.search("gamer", 2).size());
+
+        Map<Long, Long> expected = productRepository.countByCategoryForIds(allMatches).stream()
+                .collect(Collectors.toMap(CategoryCount::getCategoryId, CategoryCount::getCount));
+        for (CategoryFacetDTO facet : productService.findFacets("gamer")) {
+            Assertions.assertEquals(expected.getOrDefault(facet.getId(), 0L), facet.getCount());
+        }
+        // Every seed "PC Gamer" is a computer, so that facet counts past the cap
+        Assertions.assertEquals(allMatches.size(), productService.findFacets("gamer").stream()
+                .filter(facet -> facet.getId() == 3L).findFirst().orElseThrow().getCount());
+    }
+
+    @Test
+    public void findAllPagedShouldPageThroughEveryMatchWhenSortedExplicitly() {
+        List<Long> allMatches = searchIndex.search("gamer", Integer.MAX_VALUE);
+
+        Page<ProductDTO> first = productService.findAllPaged(0L, "gamer", PageRequest.of(0, 2, Sort.by("id")));
+        Page<ProductDTO> last = productService.findAllPaged(0L, "gamer",
+                PageRequest.of(first.getTotalPages() - 1, 2, Sort.by("id")));
+
+        Assertions.assertEquals(allMatches.size(), first.getTotalElements());
+        Assertions.assertTrue(last.getNumber() > 0);
+        Assertions.assertEquals(allMatches.stream().max(Long::compare).orElseThrow(),
+                last.getContent().get(last.getNumberOfElements() - 1).getId());
+    }
+
+    @Test
+    public void findAllPagedShouldCountEveryMatchButRankOnlyUpToCap() {
+        List<Long> allMatches = searchIndex.search("gamer", Integer.MAX_VALUE);
+
+        Page<ProductDTO> ranked = productService.findAllPaged(0L, "gamer", PageRequest.of(0, 10));
+
+        Assertions.assertEquals(allMatches.size(), ranked.getTotalElements());
+        Assertions.assertEquals(allMatches.subList(0, 2), ranked.map(ProductDTO::getId).getContent());
+    }
+
+    @Test
+    public void findFacetsShouldAgreeWithListingTotals() {
+        for (CategoryFacetDTO facet : productService.findFacets("gamer")) {
+            Assertions.assertEquals(facet.getCount(), productService.findAllPaged(facet.getId(), "gamer",
+                    PageRequest.of(0, 1, Sort.by("name"))).getTotalElements());
+        }
+    }
+}
@@ -1,18 +1,40 @@
 package com.devsuperior.dscatalog.services;
 
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.repositories.CategoryCount;
+import com.devsuperior.dscatalog.repositories.ProductFilter;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.tests.QueryBudgets;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @SpringBootTest
 @Transactional
 public class ProductServiceIntegrationTests {
@@ -22,6 +44,12 @@ public class ProductServiceIntegrationTests {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Long existingId;
     private Long nonExistingId;
     private Long countTotalProducts;
@@ -65,6 +93,344 @@ public class ProductServiceIntegrationTests {
         Assertions.assertEquals("PC Gamer Alfa", result.getContent().get(2).getName());
     }
 
+    @Test
+    public void findAllPagedShouldMatchSingleQueryPaginationForEverySortAndPage(){
+        List<Sort> sorts = List.of(
+                Sort.by("name"),
+                Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")),
+                Sort.by(Sort.Direction.DESC, "id"));
+
+        for (Long categoryId : List.of(0L, 3L)) {
+            for (Sort sort : sorts) {
+                for (int page = 0; page < 5; page++) {
+                    PageRequest pageRequest = PageRequest.of(page, 7, sort);
+                    Page<ProductDTO> result = productService.findAllPaged(categoryId, "", pageRequest);
+                    Page<Product> expected = findWithSingleQuery(categoryId, pageRequest);
+
+                    Assertions.assertEquals(expected.getTotalElements(), result.getTotalElements());
+                    Assertions.assertEquals(
+                            expected.map(Product::getId).getContent(),
+                            result.map(ProductDTO::getId).getContent());
+                    for (int i = 0; i < result.getNumberOfElements(); i++) {
+                        Assertions.assertEquals(
+                                expected.getContent().get(i).getCategories().stream().map(Category::getId).collect(Collectors.toSet()),
+                                result.getContent().get(i).getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findAllSummariesShouldMatchFullListingWithoutDescriptions(){
+        for (String name : List.of("", "gamer")) {
+            PageRequest pageRequest = PageRequest.of(1, 7, Sort.by(Sort.Direction.DESC, "price"));
+            Page<ProductDTO> expected = productService.findAllPaged(0L, name, pageRequest);
+            Page<ProductSummaryDTO> result = productService.findAllSummaries(0L, name, pageRequest);
+
+            Assertions.assertEquals(expected.getTotalElements(), result.getTotalElements());
+            Assertions.assertEquals(expected.map(ProductDTO::getId).getContent(), result.map(ProductSummaryDTO::getId).getContent());
+            for (int i = 0; i < result.getNumberOfElements(); i++) {
+                Assertions.assertEquals(expected.getContent().get(i).getPrice(), result.getContent().get(i).getPrice());
+                Assertions.assertEquals(
+                        expected.getContent().get(i).getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet()),
+                        Set.copyOf(result.getContent().get(i).getCategoryIds()));
+            }
+        }
+    }
+
+    // The listing query as it was before the id-first pipeline: distinct entities over the category join
+    private Page<Product> findWithSingleQuery(Long categoryId, PageRequest pageRequest) {
+        String where = categoryId == 0 ? "" : "where cats.id = " + categoryId;
+        String orderBy = pageRequest.getSort().stream()
+                .map(order -> "obj." + order.getProperty() + " " + order.getDirection())
+                .collect(Collectors.joining(", "));
+
+        TypedQuery<Product> query = entityManager.createQuery(
+                "select distinct obj from Product obj inner join obj.categories cats " + where + " order by " + orderBy,
+                Product.class);
+        query.setFirstResult((int) pageRequest.getOffset());
+        query.setMaxResults(pageRequest.getPageSize());
+        Long total = entityManager.createQuery(
+                "select count(distinct obj) from Product obj inner join obj.categories cats " + where, Long.class)
+                .getSingleResult();
+        return new PageImpl<>(query.getResultList(), pageRequest, total);
+    }
+
+    @Test
+    public void findAllByCursorShouldWalkWholeCatalogInSortOrder(){
+        PageRequest pageRequest = PageRequest.of(0, 7, Sort.by(Sort.Direction.DESC, "name"));
+        List<Long> expected = productService.findAllPaged(0L, "", PageRequest.of(0, 100, pageRequest.getSort()))
+                .map(ProductDTO::getId).getContent();
+
+        List<Long> walked = new ArrayList<>();
+        String after = "";
+        do {
+            CursorPageDTO<ProductDTO> result = productService.findAllByCursor(0L, after, pageRequest);
+            result.getContent().forEach(item -> walked.add(item.getId()));
+            after = result.getNextCursor();
+        } while (after != null);
+
+        Assertions.assertEquals(countTotalProducts, walked.size());
+        Assertions.assertEquals(expected, walked);
+    }
+
+    @Test
+    public void findAllPagedShouldReturnRankedMatchesWhenNameGiven(){
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Page<ProductDTO> result = productService.findAllPaged(0L, "gamer", pageRequest);
+
+        Assertions.assertEquals(21L, result.getTotalElements());
+        Assertions.assertEquals("PC Gamer", result.getContent().get(0).getName());
+    }
+
+    @Test
+    public void findAllPagedShouldMatchPartialWordsAndRespectSortWhenNameGiven(){
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("name"));
+        Page<ProductDTO> result = productService.findAllPaged(0L, "book", pageRequest);
+
+        Assertions.assertEquals(1L, result.getTotalElements());
+        Assertions.assertEquals("Macbook Pro", result.getContent().get(0).getName());
+    }
+
+    @Test
+    public void findAllPagedShouldReturnEmptyPageWhenNameDoesNotMatch(){
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Page<ProductDTO> result = productService.findAllPaged(0L, "notebook", pageRequest);
+
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void findAllPagedShouldMatchFullListingFilteredInMemory(){
+        Instant july14 = Instant.parse("2020-07-14T00:00:00Z");
+        List<ProductFilter> filters = List.of(
+                new ProductFilter(List.of(1L, 2L), false, null, null, null, null),
+                new ProductFilter(List.of(1L, 3L), true, null, null, null, null),
+                new ProductFilter(List.of(), false, 100.0, 1500.0, null, null),
+                new ProductFilter(List.of(), false, null, 500.0, july14, null),
+                new ProductFilter(List.of(3L), false, 1000.0, null, null, july14.plusSeconds(86400)));
+        PageRequest all = PageRequest.of(0, 100, Sort.by("price").and(Sort.by("id")));
+
+        for (String name : List.of("", "gamer")) {
+            List<ProductDTO> listing = productService.findAllPaged(0L, name, all).getContent();
+            for (ProductFilter filter : filters) {
+                List<Long> expected = listing.stream().filter(product -> matches(filter, product))
+                        .map(ProductDTO::getId).collect(Collectors.toList());
+                Page<ProductDTO> result = productService.findAllPaged(filter, name, all);
+
+                Assertions.assertEquals(expected, result.map(ProductDTO::getId).getContent());
+                Assertions.assertEquals(expected.size(), result.getTotalElements());
+                QueryBudgets.assertWithinBudget(ProductService.class, "findAllPaged",
+                        () -> productService.findAllPaged(filter, name, PageRequest.of(0, 2)));
+            }
+        }
+    }
+
+    private static boolean matches(ProductFilter filter, ProductDTO product) {
+        Set<Long> categories = product.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+        boolean inCategories = filter.getCategoryIds().isEmpty() || (filter.isMatchAll()
+                ? categories.containsAll(filter.getCategoryIds())
+                : filter.getCategoryIds().stream().anyMatch(categories::contains));
+        return inCategories
+                && (filter.getMinPrice() == null || product.getPrice() >= filter.getMinPrice())
+                && (filter.getMaxPrice() == null || product.getPrice() <= filter.getMaxPrice())
+                && (filter.getDateFrom() == null || !product.getDate().isBefore(filter.getDateFrom()))
+                && (filter.getDateTo() == null || !product.getDate().isAfter(filter.getDateTo()));
+    }
+
+    @Test
+    public void listingsShouldStayWithinQueryBudgetWithColdCaches(){
+        for (Long categoryId : List.of(0L, 3L)) {
+            for (PageRequest pageRequest : List.of(PageRequest.of(0, 10), PageRequest.of(0, 25, Sort.by("name")))) {
+                entityManagerFactory.getCache().evictAll();
+                QueryBudgets.assertWithinBudget(ProductService.class, "findAllPaged",
+                        () -> productService.findAllPaged(categoryId, "", pageRequest));
+                entityManagerFactory.getCache().evictAll();
+                QueryBudgets.assertWithinBudget(ProductService.class, "findAllPaged",
+                        () -> productService.findAllPaged(categoryId, "gamer", pageRequest));
+                entityManagerFactory.getCache().evictAll();
+                QueryBudgets.assertWithinBudget(ProductService.class, "findAllSummaries",
+                        () -> productService.findAllSummaries(categoryId, "", pageRequest));
+                entityManagerFactory.getCache().evictAll();
+                QueryBudgets.assertWithinBudget(ProductService.class, "findAllSliced",
+                        () -> productService.findAllSliced(categoryId, "", pageRequest, true));
+                entityManagerFactory.getCache().evictAll();
+                QueryBudgets.assertWithinBudget(ProductService.class, "findAllByCursor",
+                        () -> productService.findAllByCursor(categoryId, "", pageRequest));
+            }
+        }
+    }
+
+    @Test
+    public void findByIdShouldStayWithinQueryBudgetWithColdCaches(){
+        entityManagerFactory.getCache().evictAll();
+
+        QueryBudgets.assertWithinBudget(ProductService.class, "findById", () -> productService.findById(2L));
+    }
+
+    @Test
+    public void findByIdShouldPutProductInSecondLevelCache(){
+        entityManagerFactory.getCache().evictAll();
+
+        productService.findById(existingId);
+
+        Assertions.assertTrue(entityManagerFactory.getCache().contains(Product.class, existingId));
+    }
+
+    // The second-level cache changes when a transaction commits, so the invalidation tests
+    // let each service call commit and remove the product they create
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateShouldLeaveNoStaleCopyInSecondLevelCache(){
+        ProductDTO dto = productService.createProduct(productWithCategories(1L, 2L));
+        try {
+            inNewSession(session -> session.find(Product.class, dto.getId()).getCategories().size());
+            Assertions.assertTrue(entityManagerFactory.getCache().contains(Product.class, dto.getId()));
+
+            dto.setName("Renamed product");
+            dto.setPrice(20.0);
+            dto.setCategories(List.of(new CategoryDTO(3L, null)));
+            productService.updateProduct(dto.getId(), dto);
+
+            ProductDTO reloaded = productService.findById(dto.getId());
+            Assertions.assertEquals("Renamed product", reloaded.getName());
+            Assertions.assertEquals(20.0, reloaded.getPrice());
+            Assertions.assertEquals(List.of(3L), categoryIds(reloaded));
+
+            // Whatever the product and product-categories regions still hold must be the new state
+            List<String> statements = new ArrayList<>();
+            Product cached = inNewSession(session -> {
+                statements.addAll(QueryBudgets.record(() -> session.find(Product.class, dto.getId())));
+                Product product = session.find(Product.class, dto.getId());
+                Assertions.assertEquals(Set.of(3L), product.getCategories().stream()
+                        .map(Category::getId).collect(Collectors.toSet()));
+                return product;
+            });
+            Assertions.assertEquals("Renamed product", cached.getName());
+            Assertions.assertEquals(20.0, cached.getPrice());
+            Assertions.assertTrue(statements.stream().noneMatch(sql -> sql.contains("from tb_product ")),
+                    "product should be served from the second-level cache: " + statements);
+        } finally {
+            productService.deleteProduct(dto.getId());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteShouldEvictProductFromSecondLevelCache(){
+        ProductDTO dto = productService.createProduct(productWithCategories(1L));
+        productService.findById(dto.getId());
+        Assertions.assertTrue(entityManagerFactory.getCache().contains(Product.class, dto.getId()));
+
+        productService.deleteProduct(dto.getId());
+
+        Assertions.assertFalse(entityManagerFactory.getCache().contains(Product.class, dto.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void insertShouldInvalidateCachedFindIdsQuery(){
+        PageRequest pageRequest = PageRequest.of(0, 100, Sort.by("id"));
+        List<Long> before = productRepository.findIds(null, pageRequest).getContent();
+        List<String> cachedRead = QueryBudgets.record(() -> productRepository.findIds(null, pageRequest));
+        Assertions.assertTrue(cachedRead.stream().noneMatch(sql -> sql.startsWith("select product0_.id")),
+                "findIds should be answered from the query cache: " + cachedRead);
+
+        ProductDTO dto = productService.createProduct(productWithCategories(1L));
+        try {
+            List<Long> after = productRepository.findIds(null, pageRequest).getContent();
+
+            Assertions.assertEquals(before.size() + 1, after.size());
+            Assertions.assertTrue(after.contains(dto.getId()));
+        } finally {
+            productService.deleteProduct(dto.getId());
+        }
+    }
+
+    private <T> T inNewSession(Function<EntityManager, T> work) {
+        EntityManager session = entityManagerFactory.createEntityManager();
+        try {
+            return work.apply(session);
+        } finally {
+            session.close();
+        }
+    }
+
+    private static List<Long> categoryIds(ProductDTO dto) {
+        return dto.getCategories().stream().map(CategoryDTO::getId).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void updateShouldWriteOnlyChangedCategoryLinks(){
+        // Product 2 is linked to categories 1 and 3
+        ProductDTO dto = productService.findById(2L);
+        entityManager.clear();
+        List<String> unchanged = QueryBudgets.record(() -> productService.updateProduct(2L, dto));
+
+        dto.setVersion(null);
+        dto.setCategories(List.of(new CategoryDTO(1L, null), new CategoryDTO(2L, null)));
+        entityManager.clear();
+        List<String> swapped = QueryBudgets.record(() -> productService.updateProduct(2L, dto));
+
+        Assertions.assertEquals(0, linkStatements(unchanged, "delete"));
+        Assertions.assertEquals(0, linkStatements(unchanged, "insert"));
+        Assertions.assertEquals(1, linkStatements(swapped, "delete"));
+        Assertions.assertEquals(1, linkStatements(swapped, "insert"));
+        Assertions.assertEquals(Set.of(1L, 2L), productRepository.findById(2L).orElseThrow().getCategories().stream()
+                .map(Category::getId).collect(Collectors.toSet()));
+    }
+
+    private static long linkStatements(List<String> queries, String verb) {
+        return queries.stream().filter(sql -> sql.startsWith(verb) && sql.contains("tb_product_category")).count();
+    }
+
+    @Test
+    public void findFacetsShouldMatchListingTotalsForNameFilter(){
+        for (CategoryFacetDTO facet : productService.findFacets("gamer")) {
+            Assertions.assertEquals(
+                    productService.findAllPaged(facet.getId(), "gamer", PageRequest.of(0, 1)).getTotalElements(),
+                    facet.getCount());
+        }
+    }
+
+    // Counts are adjusted after commit, so this test lets each service call commit and
+    // undoes its own writes at the end
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void findFacetsShouldFollowCommittedProductWrites(){
+        Assertions.assertEquals(databaseCounts(), facetCounts());
+
+        ProductDTO dto = productService.createProduct(productWithCategories(1L, 2L));
+        Assertions.assertEquals(databaseCounts(), facetCounts());
+
+        dto.setCategories(List.of(new CategoryDTO(2L, null), new CategoryDTO(3L, null)));
+        productService.updateProduct(dto.getId(), dto);
+        Assertions.assertEquals(databaseCounts(), facetCounts());
+
+        productService.deleteProduct(dto.getId());
+        Assertions.assertEquals(databaseCounts(), facetCounts());
+    }
+
+    private ProductDTO productWithCategories(Long... categoryIds) {
+        ProductDTO dto = new ProductDTO(null, "Faceted product", "Counted", 10.0, null, null);
+        for (Long categoryId : categoryIds) {
+            dto.getCategories().add(new CategoryDTO(categoryId, null));
+        }
+        return dto;
+    }
+
+    private Map<Long, Long> facetCounts() {
+        return productService.findFacets("").stream()
+                .filter(facet -> facet.getCount() > 0)
+                .collect(Collectors.toMap(CategoryFacetDTO::getId, CategoryFacetDTO::getCount));
+    }
+
+    private Map<Long, Long> databaseCounts() {
+        return productRepository.countByCategory().stream()
+                .collect(Collectors.toMap(CategoryCount::getCategoryId, CategoryCount::getCount));
+    }
+
     @Test
     public void deleteShouldDeleteResourceWhenIdExists(){
         productService.deleteProduct(existingId);
@@ -1,17 +1,21 @@
 package com.devsuperior.dscatalog.services;
 
+import com.devsuperior.dscatalog.dto.CategoryDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.exceptions.ConflictException;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.search.ProductSearchIndex;
 import com.devsuperior.dscatalog.tests.Factory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -21,8 +25,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityNotFoundException;
 import java.util.List;
 import java.util.Optional;
@@ -40,6 +46,18 @@ public class ProductServiceTests {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private CategoryCache categoryCache;
+
+    @Mock
+    private CategoryProductCounts categoryCounts;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+
     private Long existingId;
     private Long nonExistingId;
     private Long dependentId;
@@ -65,11 +83,13 @@ public class ProductServiceTests {
         Mockito.when(productRepository.findById(existingId)).thenReturn(Optional.of(product));
         Mockito.when(productRepository.findById(nonExistingId)).thenReturn(Optional.empty());
 
-        Mockito.when(productRepository.find(any(), any(), any())).thenReturn(page);
+        Mockito.when(productRepository.findIds(any(), any())).thenReturn(new PageImpl<>(List.of(existingId)));
+        Mockito.when(productRepository.findProductsWithCategoriesByIds(any())).thenReturn(List.of(product));
 
         Mockito.when(productRepository.getReferenceById(existingId)).thenReturn(product);
         Mockito.doThrow(EntityNotFoundException.class).when(productRepository).getReferenceById(nonExistingId);
 
+        Mockito.when(categoryCache.findById(existingId)).thenReturn(Optional.of(new CategoryDTO(category)));
         Mockito.when(categoryRepository.getReferenceById(existingId)).thenReturn(category);
         Mockito.doThrow(EntityNotFoundException.class).when(categoryRepository).getReferenceById(nonExistingId);
 
@@ -85,7 +105,8 @@ public class ProductServiceTests {
 
         Page<ProductDTO> result = service.findAllPaged(0L, "", pageable);
         Assertions.assertNotNull(result);
-        Mockito.verify(productRepository, Mockito.times(1)).find(null, "", pageable);    }
+        Mockito.verify(productRepository, Mockito.times(1)).findIds(null, pageable);
+        Mockito.verify(productRepository, Mockito.times(1)).findProductsWithCategoriesByIds(List.of(existingId));    }
 
     @Test
     public void findByIdShouldReturnProdutDTOWhenExistingId(){
@@ -109,7 +130,17 @@ public class ProductServiceTests {
         Assertions.assertNotNull(result);
         Mockito.verify(productRepository, Mockito.times(1)).getReferenceById(existingId);
         Mockito.verify(productRepository, Mockito.times(1)).save(product);
-        Mockito.verify(categoryRepository, Mockito.times(1)).getReferenceById(existingId);
+        // The product already links the category, so no new reference is needed
+        Mockito.verify(categoryRepository, Mockito.never()).getReferenceById(existingId);
+    }
+
+    @Test
+    public void updateShouldThrowConflictExceptionWhenConcurrentEditCommittedFirst(){
+        Mockito.doThrow(new ObjectOptimisticLockingFailureException(Product.class, existingId)).when(productRepository).flush();
+
+        Assertions.assertThrows(ConflictException.class, () -> {
+            service.updateProduct(existingId, productDTO);
+        });
     }
 
     @Test
@@ -0,0 +1,70 @@
+package com.devsuperior.dscatalog.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public class TokenRevocationListTests {
+
+    @Test
+    public void isRevokedShouldReturnTrueOnlyForRevokedIds() {
+        TokenRevocationList revocations = new TokenRevocationList(Duration.ofMinutes(10), 100, "");
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+
+        for (int i = 0; i < 500; i++) {
+            revocations.revoke("revoked-" + i, expiresAt.plusSeconds(i));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(revocations.isRevoked("revoked-" + i, expiresAt.plusSeconds(i)));
+            Assertions.assertFalse(revocations.isRevoked("valid-" + i, expiresAt.plusSeconds(i)));
+        }
+        Assertions.assertFalse(revocations.isRevoked(null, expiresAt));
+    }
+
+    @Test
+    public void revokeShouldIgnoreTokensThatHaveAlreadyExpired() {
+        TokenRevocationList revocations = new TokenRevocationList(Duration.ofSeconds(1), 100, "");
+
+        revocations.revoke("expired", Instant.now().minusSeconds(1));
+
+        Assertions.assertEquals(0, revocations.size());
+    }
+
+    @Test
+    public void isRevokedShouldDropBucketsOnceTheirTokensHaveExpired() throws Exception {
+        TokenRevocationList revocations = new TokenRevocationList(Duration.ofSeconds(1), 100, "");
+        Instant soon = Instant.now().plusSeconds(1);
+        Instant later = Instant.now().plusSeconds(3600);
+        revocations.revoke("short-lived", soon);
+        revocations.revoke("long-lived", later);
+
+        Thread.sleep(Duration.between(Instant.now(), soon).toMillis() + 1100);
+
+        Assertions.assertFalse(revocations.isRevoked("short-lived", soon));
+        Assertions.assertTrue(revocations.isRevoked("long-lived", later));
+        Assertions.assertEquals(1, revocations.size());
+    }
+
+    @Test
+    public void constructorShouldReloadUnexpiredEntriesFromSnapshot(@TempDir Path directory) throws Exception {
+        Path snapshot = directory.resolve("revoked.txt");
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        TokenRevocationList revocations = new TokenRevocationList(Duration.ofHours(1), 100, snapshot.toString());
+        revocations.revoke("revoked", expiresAt);
+        Files.write(snapshot, List.of("expired " + Instant.now().minusSeconds(60).getEpochSecond()),
+                StandardOpenOption.APPEND);
+
+        TokenRevocationList restarted = new TokenRevocationList(Duration.ofHours(1), 100, snapshot.toString());
+
+        Assertions.assertTrue(restarted.isRevoked("revoked", expiresAt));
+        Assertions.assertEquals(1, restarted.size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.dto.RoleDTO;
+import com.devsuperior.dscatalog.dto.UserUpdateDTO;
+import com.devsuperior.dscatalog.entities.Authorities;
+import com.devsuperior.dscatalog.entities.User;
+import com.devsuperior.dscatalog.tests.QueryBudgets;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+public class UserServiceIntegrationTests {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long existingId;
+    private String existingEmail;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        existingId = 1L;
+        existingEmail = "alex@gmail.com";
+    }
+
+    @Test
+    public void loadUserByUsernameShouldReturnCachedPrincipalWhenCalledAgain() {
+        UserDetails first = userService.loadUserByUsername(existingEmail);
+        double hits = principalCacheHits();
+        UserDetails second = userService.loadUserByUsername(existingEmail);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(hits + 1, principalCacheHits());
+    }
+
+    @Test
+    public void loadUserByUsernameShouldReloadPrincipalAfterUpdate() {
+        User cached = (User) userService.loadUserByUsername(existingEmail);
+
+        UserUpdateDTO dto = new UserUpdateDTO();
+        dto.setFirstName("Alexander");
+        dto.setLastName(cached.getLastName());
+        dto.setEmail(existingEmail);
+        dto.getRoles().add(new RoleDTO(1L, null));
+        userService.updateUser(existingId, dto);
+
+        User reloaded = (User) userService.loadUserByUsername(existingEmail);
+        Assertions.assertEquals("Alexander", reloaded.getFirstName());
+    }
+
+    @Test
+    public void getAuthoritiesShouldReturnSameInternedAuthorities() {
+        UserDetails user = userService.loadUserByUsername(existingEmail);
+
+        Assertions.assertSame(user.getAuthorities(), user.getAuthorities());
+        Assertions.assertSame(Authorities.OPERATOR, user.getAuthorities().iterator().next());
+    }
+
+    @Test
+    public void loadUserByUsernameShouldThrowUsernameNotFoundExceptionWhenEmailDoesNotExist() {
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+            userService.loadUserByUsername("nobody@gmail.com");
+        });
+    }
+
+    @Test
+    public void findAllPagedShouldLoadRolesWithoutQueryPerUser() {
+        entityManager.clear();
+
+        QueryBudgets.assertWithinBudget(UserService.class, "findAllPaged",
+                () -> userService.findAllPaged(PageRequest.of(0, 10)));
+        entityManager.clear();
+        QueryBudgets.assertWithinBudget(UserService.class, "findAllByCursor",
+                () -> userService.findAllByCursor("", PageRequest.of(0, 10)));
+    }
+
+    private double principalCacheHits() {
+        return meterRegistry.get("cache.gets").tags("cache", "principal", "result", "hit").functionCounter().count();
+    }
+}
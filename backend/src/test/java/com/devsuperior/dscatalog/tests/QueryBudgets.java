@@ -0,0 +1,50 @@
+package com.devsuperior.dscatalog.tests;
+
+import com.devsuperior.dscatalog.instrumentation.QueryBudget;
+import com.devsuperior.dscatalog.instrumentation.QueryRecorder;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class QueryBudgets {
+
+    /**
+     * Runs the call and returns the statements it ran, in order.
+     */
+    public static List<String> record(Runnable call) {
+        QueryRecorder.Recording recording = QueryRecorder.start(1000);
+        try {
+            call.run();
+        } finally {
+            QueryRecorder.stop();
+        }
+        return recording.getQueries();
+    }
+
+    /**
+     * Runs the call, asserts it stayed within the budget declared on the service method
+     * and returns how many statements it ran.
+     */
+    public static long assertWithinBudget(Class<?> service, String method, Supplier<?> call) {
+        int budget = Arrays.stream(service.getMethods())
+                .filter(candidate -> candidate.getName().equals(method))
+                .map(candidate -> candidate.getAnnotation(QueryBudget.class))
+                .filter(annotation -> annotation != null)
+                .mapToInt(QueryBudget::value)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(service.getSimpleName() + "." + method + " declares no @QueryBudget"));
+
+        QueryRecorder.Recording recording = QueryRecorder.start(100);
+        try {
+            call.get();
+        } finally {
+            QueryRecorder.stop();
+        }
+        Assertions.assertTrue(recording.getStatements() <= budget, () -> service.getSimpleName() + "." + method +
+                " ran " + recording.getStatements() + " statements, budget is " + budget + ":\n  " +
+                String.join("\n  ", recording.getQueries()));
+        return recording.getStatements();
+    }
+}
@@ -0,0 +1,45 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Products shaped like the seed catalog: a name, a paragraph of description and an image
+ * URL, each linked to a fixed number of categories.
+ */
+final class CatalogFixtures {
+    static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod " +
+            "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud " +
+            "exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat. Duis aute irure dolor in " +
+            "reprehenderit in voluptate velit esse cillum dolore eu fugiat nulla pariatur. Excepteur sint " +
+            "occaecat cupidatat non proident, sunt in culpa qui officia deserunt mollit anim id est laborum.";
+
+    private CatalogFixtures() {
+    }
+
+    static List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            categories.add(new Category(id, "Category " + id));
+        }
+        return categories;
+    }
+
+    static List<Product> products(int count, List<Category> categories, int categoriesPerProduct) {
+        List<Product> products = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Product product = new Product(id, "Product " + id, DESCRIPTION, 100.0 + id,
+                    "https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/" + id + "-big.jpg",
+                    Instant.parse("2020-07-13T20:50:07Z").plusSeconds(id));
+            for (int i = 0; i < categoriesPerProduct; i++) {
+                product.getCategories().add(categories.get((int) ((id + i) % categories.size())));
+            }
+            products.add(product);
+        }
+        return products;
+    }
+}
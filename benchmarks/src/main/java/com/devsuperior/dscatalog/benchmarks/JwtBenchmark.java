@@ -0,0 +1,131 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import com.devsuperior.dscatalog.components.CachingJwtTokenStore;
+import com.devsuperior.dscatalog.components.SlimAccessTokenConverter;
+import com.devsuperior.dscatalog.services.TokenRevocationList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing a token on /oauth/token and verifying it on every authenticated request, with
+ * the converter configured the way WebSecurityConfig does. The load benchmarks go through
+ * DefaultTokenServices like the resource server, once against the plain store and once
+ * against the caching one, single-threaded and with eight threads sharing the token.
+ * The caching store also checks a revocation list holding 10,000 entries.
+ * {@code profile} switches between the full claim set and SlimAccessTokenConverter; the
+ * setup prints the Authorization header size of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"full", "slim"})
+    private String profile;
+
+    private JwtAccessTokenConverter converter;
+    private JwtTokenStore tokenStore;
+    private DefaultTokenServices plainServices;
+    private DefaultTokenServices cachingServices;
+    private OAuth2Authentication authentication;
+    private String encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        converter = new JwtAccessTokenConverter();
+        converter.setSigningKey("MY-JWT-SECRET");
+        converter.afterPropertiesSet();
+        if ("slim".equals(profile)) {
+            converter.setAccessTokenConverter(new SlimAccessTokenConverter());
+        }
+        tokenStore = new JwtTokenStore(converter);
+
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_OPERATOR", "ROLE_ADMIN");
+        OAuth2Request request = new OAuth2Request(Map.of("grant_type", "password"), "dscatalog", authorities,
+                true, Set.of("read", "write"), null, null, null, null);
+        authentication = new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken("maria@gmail.com", null, authorities));
+        encoded = encode().getValue();
+        System.out.println(profile + " token: Authorization header of "
+                + ("Authorization: Bearer " + encoded).getBytes(StandardCharsets.US_ASCII).length + " bytes");
+
+        plainServices = new DefaultTokenServices();
+        plainServices.setTokenStore(tokenStore);
+        cachingServices = new DefaultTokenServices();
+        // Revoked tokens expiring alongside the benchmark one, so the check reaches its bucket's Bloom filter
+        TokenRevocationList revocations = new TokenRevocationList(Duration.ofHours(1), 10_000, "");
+        for (int i = 0; i < 10_000; i++) {
+            revocations.revoke(UUID.randomUUID().toString(), Instant.now().plusSeconds(86_400));
+        }
+        cachingServices.setTokenStore(new CachingJwtTokenStore(converter, 10_000, revocations));
+    }
+
+    @Benchmark
+    public OAuth2AccessToken encode() {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(UUID.randomUUID().toString());
+        token.setExpiration(new Date(System.currentTimeMillis() + 86_400_000L));
+        token.setScope(Set.of("read", "write"));
+        token.setAdditionalInformation(Map.of("userFirstName", "Maria", "userId", 2L));
+        return converter.enhance(token, authentication);
+    }
+
+    @Benchmark
+    public OAuth2Authentication decode() {
+        return tokenStore.readAuthentication(encoded);
+    }
+
+    @Benchmark
+    public OAuth2Authentication load() {
+        return plainServices.loadAuthentication(encoded);
+    }
+
+    @Benchmark
+    public OAuth2Authentication loadCached() {
+        return cachingServices.loadAuthentication(encoded);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OAuth2Authentication loadContended() {
+        return plainServices.loadAuthentication(encoded);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OAuth2Authentication loadCachedContended() {
+        return cachingServices.loadAuthentication(encoded);
+    }
+}
@@ -0,0 +1,48 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of ProductDTO(Product, Set&lt;Category&gt;), paid once per product in every listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductDtoBenchmark {
+
+    @Param({"1", "3", "10"})
+    private int categoriesPerProduct;
+
+    private Product product;
+    private Set<Category> categories;
+
+    @Setup
+    public void setUp() {
+        product = CatalogFixtures.products(1, CatalogFixtures.categories(categoriesPerProduct), categoriesPerProduct).get(0);
+        categories = product.getCategories();
+    }
+
+    @Benchmark
+    public ProductDTO construct() {
+        return new ProductDTO(product, categories);
+    }
+}
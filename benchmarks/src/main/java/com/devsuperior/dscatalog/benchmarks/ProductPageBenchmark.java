@@ -0,0 +1,79 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.entities.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two steps between the repository and the response body: mapping a page of entities
+ * to DTOs and writing the page as JSON with the ObjectMapper settings Spring Boot uses,
+ * for both the full and the summary listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductPageBenchmark {
+
+    @Param({"12", "100"})
+    private int pageSize;
+
+    @Param({"3"})
+    private int categoriesPerProduct;
+
+    private Page<Product> products;
+    private Page<ProductDTO> dtos;
+    private Page<ProductSummaryDTO> summaries;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        PageRequest pageRequest = PageRequest.of(0, pageSize);
+        products = new PageImpl<>(CatalogFixtures.products(pageSize, CatalogFixtures.categories(10), categoriesPerProduct),
+                pageRequest, 10_000);
+        dtos = map();
+        summaries = products.map(product -> {
+            ProductSummaryDTO summary = new ProductSummaryDTO(product.getId(), product.getName(), product.getPrice(),
+                    product.getImgUrl(), product.getDate(), product.getUpdatedAt());
+            product.getCategories().forEach(category -> summary.getCategoryIds().add(category.getId()));
+            return summary;
+        });
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public Page<ProductDTO> map() {
+        return products.map(product -> new ProductDTO(product, product.getCategories()));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,97 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import com.devsuperior.dscatalog.DscatalogApplication;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService.findAllPaged against an in-memory H2 catalog to which CatalogGenerator
+ * adds {@code products} products spread over {@code categories} categories. Each call walks to
+ * the next of the first {@code pages} pages, so the numbers are not those of one hot page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductQueryBenchmark {
+    @Param({"1000", "10000"})
+    private int products;
+
+    @Param({"20"})
+    private int categories;
+
+    @Param({"3"})
+    private int categoriesPerProduct;
+
+    @Param({"12"})
+    private int pageSize;
+
+    @Param({"10"})
+    private int pages;
+
+    @Param({"true", "false"})
+    private boolean queryCache;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private int page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Passed as arguments so they override application-test.properties
+        context = new SpringApplicationBuilder(DscatalogApplication.class).run(
+                "--spring.profiles.active=test",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=" + queryCache,
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + queryCache,
+                "--catalog.generator.products=" + products,
+                "--catalog.generator.categories=" + categories,
+                "--catalog.generator.fan-out=" + categoriesPerProduct);
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<ProductDTO> findAllPaged() {
+        return productService.findAllPaged(0L, "", nextPage());
+    }
+
+    @Benchmark
+    public Page<ProductDTO> findAllPagedByCategory() {
+        return productService.findAllPaged(1L, "", nextPage());
+    }
+
+    private PageRequest nextPage() {
+        page = (page + 1) % pages;
+        return PageRequest.of(page, pageSize, Sort.by("name"));
+    }
+}
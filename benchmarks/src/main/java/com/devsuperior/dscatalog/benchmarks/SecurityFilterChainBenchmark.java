@@ -0,0 +1,118 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import com.devsuperior.dscatalog.DscatalogApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.web.FilterChainProxy;
+
+import javax.servlet.FilterChain;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost per request of the application's security filter chain, from the first filter to
+ * the point where the request would reach the DispatcherServlet: an anonymous read of a
+ * public listing, and bearer requests by an operator and an admin to endpoints their roles
+ * allow. Tokens are already in the token cache after warmup, so the numbers are those of
+ * the filters and the authorization rules rather than of signature checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+    private static final FilterChain DISPATCHER = (request, response) -> {
+    };
+
+    private ConfigurableApplicationContext context;
+    private FilterChainProxy filterChain;
+    private String operatorToken;
+    private String adminToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DscatalogApplication.class).run(
+                "--spring.profiles.active=test",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--server.port=0",
+                "--logging.level.root=WARN");
+        filterChain = context.getBean("springSecurityFilterChain", FilterChainProxy.class);
+        JwtAccessTokenConverter converter = context.getBean(JwtAccessTokenConverter.class);
+        operatorToken = encode(converter, "alex@gmail.com", "ROLE_OPERATOR");
+        adminToken = encode(converter, "maria@gmail.com", "ROLE_OPERATOR", "ROLE_ADMIN");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse anonymousPublicRead() throws Exception {
+        return filter("GET", "/products", null);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse operatorWrite() throws Exception {
+        return filter("PUT", "/products/1", operatorToken);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse adminRead() throws Exception {
+        return filter("GET", "/users/1", adminToken);
+    }
+
+    private MockHttpServletResponse filter(String method, String path, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChain.doFilter(request, response, DISPATCHER);
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException(method + " " + path + " was rejected with " + response.getStatus());
+        }
+        return response;
+    }
+
+    private static String encode(JwtAccessTokenConverter converter, String username, String... roles) {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(roles);
+        OAuth2Request request = new OAuth2Request(Map.of("grant_type", "password"), "dscatalog", authorities,
+                true, Set.of("read", "write"), null, null, null, null);
+        OAuth2Authentication authentication = new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken(username, null, authorities));
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(UUID.randomUUID().toString());
+        token.setExpiration(new Date(System.currentTimeMillis() + 86_400_000L));
+        token.setScope(Set.of("read", "write"));
+        return converter.enhance(token, authentication).getValue();
+    }
+}
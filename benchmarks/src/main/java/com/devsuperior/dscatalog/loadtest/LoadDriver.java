@@ -0,0 +1,305 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import com.devsuperior.dscatalog.DscatalogApplication;
+import com.devsuperior.dscatalog.components.CatalogGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Starts the backend on a random port with a CatalogGenerator catalog, replays a weighted
+ * mix of requests against /products, /categories and /oauth/token from a pool of client
+ * threads, and reports throughput and p50/p99 latency per operation:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.devsuperior.dscatalog.loadtest.LoadDriver \
+ *     products=100000 categories=50 fanOut=3 users=1000 threads=32 warmup=15 duration=60
+ * </pre>
+ *
+ * The mix option takes operation:weight pairs, e.g.
+ * {@code mix=listProducts:60,getProduct:30,token:10}. Results are also written as JSON to
+ * load-result.json (option {@code out}).
+ */
+public class LoadDriver {
+    private static final String DEFAULT_MIX = "listProducts:35,getProduct:25,searchProducts:5,listCategories:10," +
+            "getCategory:5,token:5,createProduct:5,updateProduct:10";
+    private static final String[] SEARCH_TERMS = {"phone", "notebook", "gamer", "wireless", "monitor", "book"};
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final String clientCredentials;
+    private final String writeToken;
+    private final List<String> userEmails;
+    private final List<Long> categoryIds;
+    private final long maxProductId;
+
+    private LoadDriver(String baseUrl, String clientCredentials, List<String> userEmails, List<Long> categoryIds,
+                       long maxProductId) throws Exception {
+        this.baseUrl = baseUrl;
+        this.clientCredentials = clientCredentials;
+        this.userEmails = userEmails;
+        this.categoryIds = categoryIds;
+        this.maxProductId = maxProductId;
+        HttpResponse<String> login = client.send(tokenRequest("maria@gmail.com"), HttpResponse.BodyHandlers.ofString());
+        this.writeToken = new ObjectMapper().readTree(login.body()).get("access_token").asText();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DscatalogApplication.class).run(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--catalog.generator.products=" + options.getOrDefault("products", "10000"),
+                "--catalog.generator.categories=" + options.getOrDefault("categories", "20"),
+                "--catalog.generator.fan-out=" + options.getOrDefault("fanOut", "3"),
+                "--catalog.generator.users=" + options.getOrDefault("users", "100"));
+        try {
+            Environment environment = context.getEnvironment();
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String clientCredentials = environment.getProperty("security.oauth2.client.client-id") + ":" +
+                    environment.getProperty("security.oauth2.client.client-secret");
+
+            LoadDriver driver = new LoadDriver("http://localhost:" + port, clientCredentials,
+                    jdbcTemplate.queryForList("SELECT email FROM tb_user WHERE email LIKE '%@catalog.test'", String.class),
+                    jdbcTemplate.queryForList("SELECT id FROM tb_category", Long.class),
+                    jdbcTemplate.queryForObject("SELECT MAX(id) FROM tb_product", Long.class));
+
+            System.out.println("Warming up for " + warmup + "s with " + threads + " threads");
+            driver.run(mix, threads, warmup);
+            System.out.println("Measuring for " + duration + "s");
+            Map<Operation, Stats> results = driver.run(mix, threads, duration);
+
+            report(results, duration);
+            File out = new File(options.getOrDefault("out", "load-result.json"));
+            write(out, options, results, duration);
+            System.out.println("Results written to " + out.getAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    private Map<Operation, Stats> run(Map<Operation, Integer> mix, int threads, int seconds) throws Exception {
+        Map<Operation, Stats> stats = new LinkedHashMap<>();
+        mix.keySet().forEach(operation -> stats.put(operation, new Stats()));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                while (running.get()) {
+                    Operation operation = pick(mix, totalWeight);
+                    Stats operationStats = stats.get(operation);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(operation.request(this),
+                                HttpResponse.BodyHandlers.discarding());
+                        operationStats.record(System.nanoTime() - start, response.statusCode() < 400);
+                    } catch (Exception e) {
+                        operationStats.record(System.nanoTime() - start, false);
+                    }
+                }
+                return null;
+            }));
+        }
+        TimeUnit.SECONDS.sleep(seconds);
+        running.set(false);
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        return stats;
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int totalWeight) {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET();
+    }
+
+    private HttpRequest tokenRequest(String email) {
+        String form = "grant_type=password&username=" + URLEncoder.encode(email, StandardCharsets.UTF_8) + "&password=" + CatalogGenerator.USER_PASSWORD;
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/oauth/token"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Basic " + Base64.getEncoder().encodeToString(clientCredentials.getBytes(StandardCharsets.UTF_8)))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private HttpRequest productWrite(String method, String path) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "{\"name\":\"Load Product " + random.nextInt(1_000_000) + "\",\"description\":\"Written by the load driver\"," +
+                "\"price\":" + (10 + random.nextInt(1000)) + ".0,\"imgUrl\":\"https://img.com/load.jpg\"," +
+                "\"date\":\"2021-01-01T00:00:00Z\",\"categories\":[{\"id\":" + randomCategory() + "}]}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + writeToken)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private long randomProduct() {
+        return 1 + ThreadLocalRandom.current().nextLong(maxProductId);
+    }
+
+    private long randomCategory() {
+        return categoryIds.get(ThreadLocalRandom.current().nextInt(categoryIds.size()));
+    }
+
+    private enum Operation {
+        listProducts {
+            HttpRequest request(LoadDriver driver) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String category = random.nextInt(4) == 0 ? "&categoryId=" + driver.randomCategory() : "";
+                return driver.get("/products?page=" + random.nextInt(20) + "&size=12&sort=name" + category).build();
+            }
+        },
+        getProduct {
+            HttpRequest request(LoadDriver driver) {
+                return driver.get("/products/" + driver.randomProduct()).build();
+            }
+        },
+        searchProducts {
+            HttpRequest request(LoadDriver driver) {
+                String term = SEARCH_TERMS[ThreadLocalRandom.current().nextInt(SEARCH_TERMS.length)];
+                return driver.get("/products?size=12&name=" + term).build();
+            }
+        },
+        listCategories {
+            HttpRequest request(LoadDriver driver) {
+                return driver.get("/categories?page=0&size=20&sort=name").build();
+            }
+        },
+        getCategory {
+            HttpRequest request(LoadDriver driver) {
+                return driver.get("/categories/" + driver.randomCategory()).build();
+            }
+        },
+        token {
+            HttpRequest request(LoadDriver driver) {
+                List<String> emails = driver.userEmails;
+                String email = emails.isEmpty() ? "alex@gmail.com" : emails.get(ThreadLocalRandom.current().nextInt(emails.size()));
+                return driver.tokenRequest(email);
+            }
+        },
+        createProduct {
+            HttpRequest request(LoadDriver driver) {
+                return driver.productWrite("POST", "/products");
+            }
+        },
+        updateProduct {
+            HttpRequest request(LoadDriver driver) {
+                return driver.productWrite("PUT", "/products/" + driver.randomProduct());
+            }
+        };
+
+        abstract HttpRequest request(LoadDriver driver);
+    }
+
+    private static final class Stats {
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long nanos, boolean ok) {
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), latencies.getHighestTrackableValue()));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Operation.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private static void report(Map<Operation, Stats> results, int seconds) {
+        System.out.printf("%-16s %10s %8s %10s %10s %10s %10s%n", "operation", "requests", "errors", "req/s",
+                "p50 ms", "p99 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<Operation, Stats> entry : results.entrySet()) {
+            Histogram latencies = entry.getValue().latencies;
+            total += latencies.getTotalCount();
+            System.out.printf("%-16s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", entry.getKey(), latencies.getTotalCount(),
+                    entry.getValue().errors.sum(), (double) latencies.getTotalCount() / seconds,
+                    latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+        System.out.printf("%-16s %10d %8s %10.1f%n", "total", total, "", (double) total / seconds);
+    }
+
+    private static void write(File out, Map<String, String> options, Map<Operation, Stats> results, int seconds)
+            throws Exception {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, Stats> entry : results.entrySet()) {
+            Histogram latencies = entry.getValue().latencies;
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("requests", latencies.getTotalCount());
+            operation.put("errors", entry.getValue().errors.sum());
+            operation.put("throughputPerSecond", (double) latencies.getTotalCount() / seconds);
+            operation.put("p50Millis", latencies.getValueAtPercentile(50) / 1000.0);
+            operation.put("p99Millis", latencies.getValueAtPercentile(99) / 1000.0);
+            operation.put("maxMillis", latencies.getMaxValue() / 1000.0);
+            operations.put(entry.getKey().name(), operation);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("options", options);
+        document.put("durationSeconds", seconds);
+        document.put("operations", operations);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, document);
+    }
+}